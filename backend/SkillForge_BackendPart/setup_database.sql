@@ -205,4 +205,88 @@ ALTER TABLE quiz_attempts
   ADD COLUMN IF NOT EXISTS details JSON NULL AFTER score,
   ADD COLUMN IF NOT EXISTS feedback TEXT NULL AFTER attempted_at;
 
+-- Distinct active students over a reporting window
+ALTER TABLE quiz_attempts
+  ADD INDEX IF NOT EXISTS idx_quiz_attempts_attempted_student (attempted_at, student_id);
+
 UPDATE quiz_attempts SET attempted_at = NOW() WHERE attempted_at IS NULL;
+
+-- Block id generator for quiz_attempts (lets Hibernate batch attempt inserts);
+-- seeded past existing ids here, and moved past them again at startup before requests are served
+CREATE TABLE IF NOT EXISTS id_generators (
+  name VARCHAR(255) NOT NULL PRIMARY KEY,
+  next_val BIGINT
+);
+INSERT INTO id_generators (name, next_val)
+  SELECT 'quiz_attempts', COALESCE(MAX(id), 0) + 51 FROM quiz_attempts
+  ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+-- Attempt answers as option indexes (chosen_option -1 = blank, -2 = free text in answer_text);
+-- filled by the application from quiz_attempts.answers_json, which is cleared once copied
+CREATE TABLE IF NOT EXISTS quiz_attempt_answers (
+  attempt_id BIGINT NOT NULL,
+  question_id BIGINT NOT NULL,
+  chosen_option SMALLINT NOT NULL,
+  answer_text VARCHAR(1000) NULL,
+  PRIMARY KEY (attempt_id, question_id),
+  INDEX idx_quiz_attempt_answers_question (question_id, chosen_option),
+  FOREIGN KEY (attempt_id) REFERENCES quiz_attempts(id) ON DELETE CASCADE
+);
+
+-- Stored clarify explanations, keyed by question, normalized answer and query (SHA-256 hex)
+CREATE TABLE IF NOT EXISTS question_explanations (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  question_id BIGINT NOT NULL,
+  quiz_id BIGINT NULL,
+  course_id BIGINT NULL,
+  answer_hash CHAR(64) NOT NULL,
+  query_hash CHAR(64) NOT NULL,
+  question_hash CHAR(64) NOT NULL,
+  explanation TEXT NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  UNIQUE KEY idx_question_explanations_key (question_id, answer_hash, query_hash),
+  INDEX idx_question_explanations_quiz (quiz_id),
+  INDEX idx_question_explanations_course (course_id)
+);
+
+-- Server-side quiz sessions; answers_json is the last batched flush of in-memory autosaves
+CREATE TABLE IF NOT EXISTS quiz_sessions (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  quiz_id BIGINT NOT NULL,
+  student_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  started_at DATETIME(6) NOT NULL,
+  expires_at DATETIME(6) NULL,
+  answers_json TEXT NULL,
+  saved_at DATETIME(6) NULL,
+  finished_at DATETIME(6) NULL,
+  auto_submitted BIT NULL,
+  attempt_id BIGINT NULL,
+  INDEX idx_quiz_sessions_student_quiz (student_id, quiz_id, status),
+  INDEX idx_quiz_sessions_status (status)
+);
+
+-- Background AI quiz generations; QUEUED/RUNNING rows are run again after a restart
+CREATE TABLE IF NOT EXISTS quiz_generation_jobs (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  kind VARCHAR(20) NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  requested_by BIGINT NOT NULL,
+  course_id BIGINT NULL,
+  request_json TEXT NOT NULL,
+  result_quiz_id BIGINT NULL,
+  result_json TEXT NULL,
+  error VARCHAR(1000) NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  created_at DATETIME(6) NOT NULL,
+  started_at DATETIME(6) NULL,
+  finished_at DATETIME(6) NULL,
+  INDEX idx_quiz_generation_jobs_status (status),
+  INDEX idx_quiz_generation_jobs_requested_by (requested_by)
+);
+
+-- One-off backfills that have completed (written in the same transaction as the backfilled rows)
+CREATE TABLE IF NOT EXISTS backfill_markers (
+  name VARCHAR(64) NOT NULL PRIMARY KEY,
+  completed_at DATETIME(6) NOT NULL
+);
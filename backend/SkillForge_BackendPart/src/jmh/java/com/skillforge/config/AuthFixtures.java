@@ -0,0 +1,68 @@
+package com.skillforge.config;
+
+import com.skillforge.entity.User;
+import com.skillforge.service.AuthService;
+import com.skillforge.service.PrincipalCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Wires the authentication beans by hand, with the same settings as
+ * application.properties, so benchmarks measure them without a Spring context.
+ */
+final class AuthFixtures {
+
+    static final String SECRET = "a7bcd38ef901234567890bcdef123456789012345678901234567890abcdef1234";
+    static final long EXPIRATION_MS = 900_000L;
+
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final AuthAuditLog auditLog = new AuthAuditLog(meterRegistry, 8192, 100);
+    final JwtService jwtService = new JwtService();
+    final PrincipalCache principalCache = new PrincipalCache(meterRegistry, 10_000, 300, EXPIRATION_MS);
+    final RevokedSessions revokedSessions = new RevokedSessions(meterRegistry, 1 << 20);
+
+    AuthFixtures() {
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10_000L);
+        ReflectionTestUtils.setField(jwtService, "auditLog", auditLog);
+        jwtService.init();
+    }
+
+    static User student(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("student" + id + "@skillforge.test");
+        user.setFirstName("Bench");
+        user.setLastName("Student");
+        user.setPassword("unused");
+        user.setRole(User.Role.STUDENT);
+        return user;
+    }
+
+    /** Filter wired to a stub user lookup that answers from memory, standing in for the database. */
+    JwtAuthFilter filter() {
+        AuthService userLookup = new AuthService() {
+            @Override
+            public UserDetails loadPrincipal(String email) {
+                return org.springframework.security.core.userdetails.User.withUsername(email)
+                        .password("")
+                        .roles("STUDENT")
+                        .build();
+            }
+        };
+        JwtAuthFilter filter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "authService", userLookup);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+        ReflectionTestUtils.setField(filter, "auditLog", auditLog);
+        ReflectionTestUtils.setField(filter, "revokedSessions", revokedSessions);
+        return filter;
+    }
+
+    void close() throws InterruptedException {
+        auditLog.shutdown();
+    }
+}
@@ -0,0 +1,90 @@
+package com.skillforge.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through JwtAuthFilter: header parsing, token
+ * verification, the revocation check and building the security context.
+ * The user lookup is a stub, so only the filter's own cost is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private AuthFixtures fixtures;
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest roleClaimRequest;
+    private MockHttpServletRequest lookupRequest;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new AuthFixtures();
+        filter = fixtures.filter();
+        com.skillforge.entity.User user = AuthFixtures.student(42L);
+
+        // Current tokens carry the role claim and need no user lookup
+        roleClaimRequest = request(fixtures.jwtService.generateToken(user, "bench-session"));
+
+        // Tokens without a role claim fall back to the (stubbed) principal lookup
+        lookupRequest = request(fixtures.jwtService.generateToken(Map.of(),
+                org.springframework.security.core.userdetails.User.withUsername(user.getEmail())
+                        .password("")
+                        .roles("STUDENT")
+                        .build()));
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void roleClaim(Blackhole bh) throws Exception {
+        run(roleClaimRequest, bh);
+    }
+
+    @Benchmark
+    public void principalLookup(Blackhole bh) throws Exception {
+        run(lookupRequest, bh);
+    }
+
+    private void run(MockHttpServletRequest request, Blackhole bh) throws Exception {
+        FilterChain chain = (req, res) -> bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses/student");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
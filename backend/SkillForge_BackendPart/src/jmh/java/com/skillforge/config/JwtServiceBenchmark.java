@@ -0,0 +1,71 @@
+package com.skillforge.config;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token creation, a full parse (signature check included) and validation
+ * through the verified-token cache. Run with the gc profiler to get
+ * allocated bytes per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private AuthFixtures fixtures;
+    private com.skillforge.entity.User user;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new AuthFixtures();
+        user = AuthFixtures.student(42L);
+        userDetails = org.springframework.security.core.userdetails.User.withUsername(user.getEmail())
+                .password("")
+                .roles("STUDENT")
+                .build();
+        token = fixtures.jwtService.generateToken(user, "bench-session");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return fixtures.jwtService.generateToken(user, "bench-session");
+    }
+
+    // extractClaim always parses and verifies the signature; this is the uncached cost
+    @Benchmark
+    public Date parseClaims() {
+        return fixtures.jwtService.extractClaim(token, Claims::getExpiration);
+    }
+
+    // Same token every call, so after the first call this is the verified-token cache hit path
+    @Benchmark
+    public Boolean validateToken() {
+        return fixtures.jwtService.validateToken(token, userDetails);
+    }
+}
@@ -2,8 +2,10 @@ package com.skillforge;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SkillForgeApplication {
     public static void main(String[] args) {
         SpringApplication.run(SkillForgeApplication.class, args);
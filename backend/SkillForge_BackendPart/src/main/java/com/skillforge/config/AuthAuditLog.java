@@ -0,0 +1,136 @@
+package com.skillforge.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Authentication event log that keeps logging off the request path.
+ *
+ * Request threads only count the event and, if it is sampled, claim a slot
+ * in a bounded lock-free ring buffer (many producers, one consumer). A single
+ * background thread drains the buffer into the "skillforge.auth" logger as
+ * key=value lines. When the buffer is full the event is dropped and counted
+ * rather than blocking the caller. Routine successful validations are
+ * sampled; every other event type is always queued.
+ */
+@Component
+public class AuthAuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger("skillforge.auth");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final AtomicReferenceArray<AuthEvent> slots;
+    private final int mask;
+    // Next sequence a producer will claim; only ever advanced by CAS
+    private final AtomicLong tail = new AtomicLong();
+    // Next sequence the drainer will read; written by the drainer thread only
+    private final AtomicLong head = new AtomicLong();
+
+    private final int validatedSampleEvery;
+    private final Map<AuthEvent.Type, Counter> counters = new EnumMap<>(AuthEvent.Type.class);
+    private final Counter dropped;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    public AuthAuditLog(MeterRegistry meterRegistry,
+                        @Value("${auth.events.buffer-size:8192}") int bufferSize,
+                        @Value("${auth.events.validated-sample-every:100}") int validatedSampleEvery) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.validatedSampleEvery = Math.max(1, validatedSampleEvery);
+        for (AuthEvent.Type type : AuthEvent.Type.values()) {
+            counters.put(type, Counter.builder("auth.events").tag("type", type.name()).register(meterRegistry));
+        }
+        this.dropped = Counter.builder("auth.events.dropped").register(meterRegistry);
+
+        this.drainer = new Thread(this::drainLoop, "auth-audit-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    public void record(AuthEvent.Type type, String subject, String detail) {
+        counters.get(type).increment();
+        if (type == AuthEvent.Type.TOKEN_VALIDATED && validatedSampleEvery > 1
+                && ThreadLocalRandom.current().nextInt(validatedSampleEvery) != 0) {
+            return;
+        }
+        if (!offer(new AuthEvent(type, subject, detail, System.currentTimeMillis()))) {
+            dropped.increment();
+        }
+    }
+
+    private boolean offer(AuthEvent event) {
+        while (true) {
+            long seq = tail.get();
+            if (seq - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) {
+                // The drainer clears a slot before advancing head past it, so this slot is free
+                slots.lazySet((int) seq & mask, event);
+                return true;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running || head.get() != tail.get()) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drain() {
+        int written = 0;
+        long seq = head.get();
+        while (true) {
+            int index = (int) seq & mask;
+            AuthEvent event = slots.get(index);
+            if (event == null) {
+                // Either empty, or a producer has claimed the slot but not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            head.lazySet(++seq);
+            write(event);
+            written++;
+        }
+        return written;
+    }
+
+    private void write(AuthEvent event) {
+        try {
+            if (event.getType() == AuthEvent.Type.LOGIN_FAILURE || event.getType() == AuthEvent.Type.TOKEN_REJECTED) {
+                log.warn("event={} subject={} detail=\"{}\" at={}", event.getType(), event.getSubject(),
+                        event.getDetail(), Instant.ofEpochMilli(event.getTimestamp()));
+            } else {
+                log.info("event={} subject={} detail=\"{}\" at={}", event.getType(), event.getSubject(),
+                        event.getDetail(), Instant.ofEpochMilli(event.getTimestamp()));
+            }
+        } catch (RuntimeException e) {
+            // Never let a broken appender kill the drainer
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        drainer.join(TimeUnit.SECONDS.toMillis(2));
+    }
+}
@@ -0,0 +1,45 @@
+package com.skillforge.config;
+
+/**
+ * One authentication event, queued by {@link AuthAuditLog} and written by its
+ * background drainer.
+ */
+public final class AuthEvent {
+
+    public enum Type {
+        KEY_INITIALIZED,
+        TOKEN_ISSUED,
+        TOKEN_VALIDATED,
+        TOKEN_REJECTED,
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE
+    }
+
+    private final Type type;
+    private final String subject;
+    private final String detail;
+    private final long timestamp;
+
+    AuthEvent(Type type, String subject, String detail, long timestamp) {
+        this.type = type;
+        this.subject = subject;
+        this.detail = detail;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
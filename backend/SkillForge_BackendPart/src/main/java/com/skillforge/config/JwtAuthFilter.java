@@ -1,6 +1,7 @@
 package com.skillforge.config;
 
 import com.skillforge.service.AuthService;
+import com.skillforge.service.PrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,13 +25,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private AuthAuditLog auditLog;
+
+    @Autowired
+    private RevokedSessions revokedSessions;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,34 +48,42 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
 
-        // Safely try to extract username from token. If token parsing fails (bad signature, expired),
-        // log and continue the filter chain without authenticating so that endpoints that permit anonymous
-        // access (like /api/auth/register) still work.
+        // One signature check per token; repeat requests with the same token hit the verified-token cache.
+        // If verification fails (bad signature, expired), log and continue the filter chain without
+        // authenticating so that endpoints that permit anonymous access (like /api/auth/register) still work.
+        final VerifiedToken token;
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            token = jwtService.verify(jwt);
         } catch (Exception e) {
-            System.err.println("Invalid JWT token received in request: " + e.getMessage());
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, null, e.getClass().getSimpleName() + " " + request.getRequestURI());
             // Do not stop the filter chain; proceed as unauthenticated
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // In-memory check; sessions revoked by logout, token reuse or an admin stop working immediately
+        if (revokedSessions.isRevoked(token.getSessionId())) {
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, token.getSubject(), "session revoked " + request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (token.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = authService.loadUserByUsername(userEmail);
-                System.out.println("Attempting to validate token for user: " + userEmail);
-
-                if (jwtService.validateToken(jwt, userDetails)) {
-                    System.out.println("Token validation successful for user: " + userEmail);
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                    System.err.println("Token validation failed for user: " + userEmail);
+                // The signed role claim is enough unless the user changed since the token was issued
+                // (or the token predates role claims); then the current role is looked up.
+                UserDetails userDetails = token.getPrincipal();
+                if (userDetails == null || principalCache.changedSince(token.getSubject(), token.getIssuedAt())) {
+                    userDetails = authService.loadPrincipal(token.getSubject());
                 }
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                auditLog.record(AuthEvent.Type.TOKEN_VALIDATED, token.getSubject(), request.getRequestURI());
             } catch (Exception e) {
-                System.err.println("Error during token validation: " + e.getMessage());
+                auditLog.record(AuthEvent.Type.TOKEN_REJECTED, token.getSubject(), e.getClass().getSimpleName());
             }
         }
 
@@ -1,19 +1,30 @@
 package com.skillforge.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.skillforge.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -25,8 +36,27 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheSize;
+
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String SESSION_CLAIM = "sid";
+
+    @Autowired
+    private AuthAuditLog auditLog;
+
     private SecretKey signingKey;
 
+    // Hex prefix of SHA-256(key), computed once to help spot mismatched keys between instances
+    private String keyFingerprint;
+
+    // Thread-safe; building a parser per call re-derives the key setup every time
+    private JwtParser parser;
+
+    // SHA-256(token) -> verified claims, each entry living until its token expires
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void init() {
         // Initialize the signing key once when the service is created
@@ -34,11 +64,61 @@ public class JwtService {
         byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
         System.arraycopy(secretBytes, 0, keyBytes, 0, Math.min(secretBytes.length, keyBytes.length));
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
-        System.out.println("JWT signing key initialized successfully (fingerprint=" + computeKeyFingerprint() + ")");
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long millis = token.getExpiresAt() == null ? expiration
+                                : token.getExpiresAt().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.keyFingerprint = computeKeyFingerprint();
+        auditLog.record(AuthEvent.Type.KEY_INITIALIZED, null, "fingerprint=" + keyFingerprint);
+    }
+
+    /**
+     * Checks signature and expiry with a single parse and returns the token's
+     * claims. Repeat calls with the same token are served from a cache until
+     * the token expires. Throws a JwtException for invalid or expired tokens.
+     */
+    public VerifiedToken verify(String token) {
+        String key = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                claims.get(ROLE_CLAIM, String.class),
+                claims.get(SESSION_CLAIM, String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration());
+        if (verified.getExpiresAt() != null) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public Date extractExpiration(String token) {
@@ -52,20 +132,28 @@ public class JwtService {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
-            System.err.println("Failed to parse JWT token: " + e.getMessage());
-            e.printStackTrace();
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, null, e.getClass().getSimpleName());
             throw e;
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Subject is the email; user id and role travel as signed claims so requests need no user lookup.
+    // The session id ties the token to its refresh token family, so revoking the session revokes it.
+    public String generateToken(User user, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        if (sessionId != null) {
+            claims.put(SESSION_CLAIM, sessionId);
+        }
+        return createToken(claims, user.getEmail());
+    }
+
+    // Lifetime of access tokens in milliseconds (jwt.expiration)
+    public long getExpiration() {
+        return expiration;
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -79,38 +167,43 @@ public class JwtService {
 
     private String createToken(Map<String, Object> claims, String subject) {
         try {
-            System.out.println("Creating token for subject=" + subject + " using key fingerprint=" + computeKeyFingerprint());
-            return Jwts.builder()
+            String token = Jwts.builder()
                     .setClaims(claims)
                     .setSubject(subject)
                     .setIssuedAt(new Date(System.currentTimeMillis()))
                     .setExpiration(new Date(System.currentTimeMillis() + expiration))
                     .signWith(signingKey, SignatureAlgorithm.HS256)
                     .compact();
+            auditLog.record(AuthEvent.Type.TOKEN_ISSUED, subject, "key=" + keyFingerprint);
+            return token;
         } catch (Exception e) {
-            System.err.println("Error creating token: " + e.getMessage());
-            e.printStackTrace();
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, subject, "signing failed: " + e.getMessage());
             throw e;
         }
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            System.out.println("Validating token for user=" + userDetails.getUsername() + " using key fingerprint=" + computeKeyFingerprint());
-            final String username = extractUsername(token);
-            boolean isValid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-            if (!isValid) {
-                System.out.println("Token validation failed for user: " + userDetails.getUsername());
-                System.out.println("Token username: " + username);
-                System.out.println("Token expired: " + isTokenExpired(token));
-            }
-            return isValid;
+            VerifiedToken verified = verify(token);
+            return verified.getSubject().equals(userDetails.getUsername()) && !verified.isExpired();
+        } catch (ExpiredJwtException e) {
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, userDetails.getUsername(), "expired");
+            return false;
         } catch (Exception e) {
-            System.err.println("Token validation error: " + e.getMessage());
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, userDetails.getUsername(), e.getClass().getSimpleName());
             return false;
         }
     }
 
+    private static String sha256(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     // Compute a short fingerprint (hex) of the signing key to help debug mismatched keys.
     private String computeKeyFingerprint() {
         try {
@@ -0,0 +1,122 @@
+package com.skillforge.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Session ids whose access tokens must no longer be accepted, checked by
+ * JwtAuthFilter on every request without touching the database.
+ *
+ * A Bloom filter answers the common case (not revoked) with a few bit
+ * reads; only on a hit is the exact set consulted, so false positives cost
+ * a map lookup and never reject a valid token. An entry is only needed
+ * until the session's last access token expires, after which
+ * {@link #prune()} drops it and rebuilds the filter from what is left.
+ */
+@Component
+public class RevokedSessions {
+
+    private static final int HASHES = 4;
+
+    // session id -> epoch millis after which no access token of the session can be valid
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    private final int bloomBits;
+    private volatile BloomFilter bloom;
+
+    private final Counter bloomHits;
+
+    public RevokedSessions(MeterRegistry meterRegistry,
+                           @Value("${auth.revocation.bloom-bits:1048576}") int bloomBits) {
+        this.bloomBits = Math.max(1024, bloomBits);
+        this.bloom = new BloomFilter(this.bloomBits);
+        this.bloomHits = Counter.builder("auth.revocation.bloom.hits").register(meterRegistry);
+        Gauge.builder("auth.revocation.size", revokedUntil, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null || !bloom.mightContain(sessionId)) {
+            return false;
+        }
+        bloomHits.increment();
+        Long until = revokedUntil.get(sessionId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    // Writers are rare (logout, reuse detection, admin action), so they simply serialize with prune()
+    public synchronized void revoke(String sessionId, long untilMillis) {
+        if (sessionId == null) {
+            return;
+        }
+        bloom.add(sessionId);
+        revokedUntil.merge(sessionId, untilMillis, Math::max);
+    }
+
+    /** Drops entries whose access tokens have all expired and rebuilds the filter. */
+    public synchronized int prune() {
+        long now = System.currentTimeMillis();
+        revokedUntil.values().removeIf(until -> until <= now);
+        BloomFilter rebuilt = new BloomFilter(bloomBits);
+        revokedUntil.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+        return revokedUntil.size();
+    }
+
+    public int size() {
+        return revokedUntil.size();
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+
+        BloomFilter(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+            this.bits = words.length() << 6;
+        }
+
+        void add(String value) {
+            long h = mix64(value);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h = mix64(value);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // String hash spread over 64 bits (splitmix64 finalizer) for double hashing
+        private static long mix64(String value) {
+            long z = value.hashCode() * 0x9E3779B97F4A7C15L + value.length();
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.skillforge.config;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked once by
+ * {@link JwtService#verify(String)}. Immutable, so it can be cached and
+ * shared between requests carrying the same token.
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Long userId;
+    private final String role;
+    private final String sessionId;
+    private final Date issuedAt;
+    private final Date expiresAt;
+    private final UserDetails principal;
+
+    VerifiedToken(String subject, Long userId, String role, String sessionId, Date issuedAt, Date expiresAt) {
+        this.subject = subject;
+        this.userId = userId;
+        this.role = role;
+        this.sessionId = sessionId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        // Tokens issued before role claims existed carry no role and need a user lookup
+        this.principal = role == null ? null : User.withUsername(subject)
+                .password("")
+                .roles(role)
+                .build();
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /** Refresh token family the token was issued for; null for tokens issued before sessions existed. */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.getTime() <= System.currentTimeMillis();
+    }
+
+    /** Principal built from the signed role claim, or null when the token has none. */
+    public UserDetails getPrincipal() {
+        return principal;
+    }
+}
@@ -1,18 +1,27 @@
 package com.skillforge.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.entity.QuizGenerationJob;
+import com.skillforge.service.GeminiClient;
+import com.skillforge.service.GeminiException;
+import com.skillforge.service.GenerationQueueFullException;
+import com.skillforge.service.QuizGenerationService;
+import com.skillforge.service.QuizService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -22,11 +31,22 @@ public class AIController {
     @Value("${gemini.api.key}")
     private String geminiApiKey;
 
+    @Autowired
+    private GeminiClient geminiClient;
+
+    @Autowired
+    private QuizGenerationService quizGenerationService;
+
+    @Autowired
+    private QuizService quizService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final Logger logger = LoggerFactory.getLogger(AIController.class);
 
+    // Runs as a preview job (see /api/quiz-generation-jobs/preview); the response is completed
+    // asynchronously, so the request thread is not held while Gemini answers
     @PostMapping("/gemini-generate-quiz")
-    public ResponseEntity<?> generateGeminiQuiz(@RequestBody Map<String, Object> request) {
+    public CompletableFuture<ResponseEntity<?>> generateGeminiQuiz(@RequestBody Map<String, Object> request) {
         try {
             String topic = (String) request.get("topic");
             Integer questionCount = (Integer) request.get("questionCount");
@@ -35,19 +55,34 @@ public class AIController {
             String prompt = (String) request.get("prompt");
 
             if (topic == null || questionCount == null) {
-                return ResponseEntity.badRequest().body("Missing required fields: topic, questionCount");
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.badRequest().body("Missing required fields: topic, questionCount"));
             }
 
             if (geminiApiKey == null || geminiApiKey.isEmpty()) {
-                return ResponseEntity.badRequest().body("Gemini API key not configured");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Gemini API key not configured"));
             }
 
             // Generate quiz using Gemini AI
-            Map<String, Object> quizData = generateQuizWithGemini(topic, questionCount, difficulty, courseContext, prompt);
-            return ResponseEntity.ok(quizData);
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            Long requestedBy = quizService.getUserIdByEmail(auth.getName());
+            QuizGenerationJob job = quizGenerationService.submitPreview(requestedBy, topic, questionCount, difficulty,
+                    courseContext, prompt);
+            return quizGenerationService.completion(job.getId()).thenApply(done -> {
+                try {
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                            .body(quizGenerationService.resultBody(done));
+                } catch (Exception e) {
+                    return ResponseEntity.badRequest().body("Error generating quiz: " + e.getMessage());
+                }
+            });
 
+        } catch (GenerationQueueFullException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Error: " + e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error generating quiz: " + e.getMessage());
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Error generating quiz: " + e.getMessage()));
         }
     }
 
@@ -109,77 +144,6 @@ public class AIController {
         return result;
     }
 
-    private Map<String, Object> generateQuizWithGemini(String topic, Integer questionCount, String difficulty, String courseContext, String prompt) throws Exception {
-        String apiUrl = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=";
-
-        // Use the provided prompt or create a default one
-        String aiPrompt = prompt != null ? prompt : String.format(
-                "Generate %d multiple choice quiz questions EXCLUSIVELY about '%s' for %s level students. "
-                + "CRITICAL REQUIREMENTS: "
-                + "- Every question must be SPECIFICALLY about '%s' - not general concepts "
-                + "- Test practical understanding and real-world application of '%s' "
-                + "- Each question has exactly 4 options with only one correct answer "
-                + "- Questions should be challenging but appropriate for %s level "
-                + "- Focus on the most important aspects of '%s' "
-                + "RESPONSE FORMAT - Return ONLY valid JSON array: "
-                + "[{\"prompt\":\"Question about %s?\",\"options\":[\"Option 1\",\"Option 2\",\"Option 3\",\"Option 4\"],\"correctAnswer\":\"Option 1\",\"type\":\"MCQ\"}] "
-                + "Generate %d questions specifically about '%s' now. Return only the JSON array:",
-                questionCount, topic, difficulty, topic, topic, difficulty, topic, topic, questionCount, topic);
-
-        Map<String, Object> payload = Map.of(
-                "contents", List.of(Map.of(
-                        "parts", List.of(Map.of("text", aiPrompt))
-                )),
-                "generationConfig", Map.of(
-                        "temperature", 0.7,
-                        "topK", 40,
-                        "topP", 0.95,
-                        "maxOutputTokens", 2000
-                )
-        );
-
-        String requestBody = objectMapper.writeValueAsString(payload);
-
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(apiUrl + "?key=" + geminiApiKey))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
-
-        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-
-        int status = response.statusCode();
-        String body = response.body();
-        if (status >= 200 && status < 300) {
-            try {
-                var root = objectMapper.readTree(body);
-                var candidates = root.path("candidates");
-                if (candidates.isArray() && candidates.size() > 0) {
-                    String generatedText = candidates.get(0).path("content").path("parts").get(0).path("text").asText("");
-                    // Return the generated text for frontend to parse
-                    return Map.of(
-                            "generatedText", generatedText,
-                            "topic", topic,
-                            "difficulty", difficulty,
-                            "questionCount", questionCount,
-                            "success", true
-                    );
-                }
-
-                // Fallback: if the response doesn't have candidates in expected format, return raw body
-                logger.warn("Unexpected Gemini response structure for quiz generation: {}", body);
-                return Map.of("generatedText", body, "success", false);
-            } catch (Exception ex) {
-                logger.error("Failed to parse Gemini quiz response", ex);
-                return Map.of("generatedText", body, "success", false);
-            }
-        }
-
-        logger.error("Gemini quiz generation failed: status={} body={}", status, body);
-        throw new Exception("Failed to generate quiz with Gemini API. Status: " + status + " Body: " + body);
-    }
-
     @PostMapping("/generate-feedback-summary")
     public ResponseEntity<?> generateFeedbackSummary(@RequestBody Map<String, Object> request) {
         try {
@@ -209,99 +173,80 @@ public class AIController {
                     feedback
             );
 
-            Map<String, Object> payload = Map.of(
-                    "contents", List.of(Map.of(
-                            "parts", List.of(Map.of("text", aiPrompt))
-                    )),
-                    "generationConfig", Map.of(
-                            "temperature", 0.5,
-                            "topK", 40,
-                            "topP", 0.95,
-                            "maxOutputTokens", 1500
-                    )
+            Map<String, Object> generationConfig = Map.of(
+                    "temperature", 0.5,
+                    "topK", 40,
+                    "topP", 0.95,
+                    "maxOutputTokens", 1500
             );
 
-            String requestBody = objectMapper.writeValueAsString(payload);
-            String apiUrl = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key="+ geminiApiKey;
-
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(apiUrl))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-            int status = response.statusCode();
-            String body = response.body();
+            JsonNode root;
+            try {
+                root = geminiClient.generateContent(aiPrompt, generationConfig);
+            } catch (GeminiException e) {
+                // Gemini failed or is unavailable: return a server-side fallback summary so the frontend can still show useful info.
+                logger.error("Gemini feedback summary request failed: status={} message={}", e.getStatusCode(), e.getMessage());
+                Map<String, Object> localFallback = generateLocalSummary(feedback);
+                // Include the failure for diagnostics in 'raw'
+                return ResponseEntity.ok(Map.of("summary", localFallback, "raw", e.getMessage()));
+            }
+            String body = root.toString();
 
-            if (status >= 200 && status < 300) {
-                try {
-                    var root = objectMapper.readTree(body);
-                    var candidates = root.path("candidates");
-                    if (candidates.isArray() && candidates.size() > 0) {
-                        String generatedText = candidates.get(0).path("content").path("parts").get(0).path("text").asText("");
-
-                        // Try to parse as JSON
-                        try {
-                            // Clean markdown if present
-                            String cleaned = generatedText.trim();
-                            if (cleaned.startsWith("```")) {
-                                int startIdx = cleaned.indexOf('\n');
-                                if (startIdx > 0) {
-                                    cleaned = cleaned.substring(startIdx + 1);
-                                }
-                                if (cleaned.endsWith("```")) {
-                                    cleaned = cleaned.substring(0, cleaned.length() - 3);
-                                }
+            try {
+                String generatedText = GeminiClient.textOf(root);
+                if (generatedText != null) {
+                    // Try to parse as JSON
+                    try {
+                        // Clean markdown if present
+                        String cleaned = generatedText.trim();
+                        if (cleaned.startsWith("```")) {
+                            int startIdx = cleaned.indexOf('\n');
+                            if (startIdx > 0) {
+                                cleaned = cleaned.substring(startIdx + 1);
                             }
-                            cleaned = cleaned.trim();
-
-                            // Find JSON start
-                            int jsonStart = cleaned.indexOf('{');
-                            if (jsonStart > 0) {
-                                cleaned = cleaned.substring(jsonStart);
+                            if (cleaned.endsWith("```")) {
+                                cleaned = cleaned.substring(0, cleaned.length() - 3);
                             }
+                        }
+                        cleaned = cleaned.trim();
 
-                            var summary = objectMapper.readValue(cleaned, Map.class);
-                            // Return both structured summary and raw generated text for frontend fallback/diagnostics
-                            return ResponseEntity.ok(Map.of(
-                                    "summary", summary,
-                                    "raw", generatedText
-                            ));
-                        } catch (Exception e) {
-                            logger.warn("Could not parse AI-generated JSON; returning text summary. Generated text: {}", generatedText);
-                            // If not JSON, return as text summary
-                            Map<String, Object> fallback = new java.util.HashMap<>();
-                            fallback.put("summary", generatedText);
-                            fallback.put("themes", List.of("Feedback analysis"));
-                            fallback.put("strengths", List.of());
-                            fallback.put("improvements", List.of());
-                            fallback.put("priority", "Medium");
-                            return ResponseEntity.ok(Map.of("summary", fallback, "raw", generatedText));
+                        // Find JSON start
+                        int jsonStart = cleaned.indexOf('{');
+                        if (jsonStart > 0) {
+                            cleaned = cleaned.substring(jsonStart);
                         }
+
+                        var summary = objectMapper.readValue(cleaned, Map.class);
+                        // Return both structured summary and raw generated text for frontend fallback/diagnostics
+                        return ResponseEntity.ok(Map.of(
+                                "summary", summary,
+                                "raw", generatedText
+                        ));
+                    } catch (Exception e) {
+                        logger.warn("Could not parse AI-generated JSON; returning text summary. Generated text: {}", generatedText);
+                        // If not JSON, return as text summary
+                        Map<String, Object> fallback = new java.util.HashMap<>();
+                        fallback.put("summary", generatedText);
+                        fallback.put("themes", List.of("Feedback analysis"));
+                        fallback.put("strengths", List.of());
+                        fallback.put("improvements", List.of());
+                        fallback.put("priority", "Medium");
+                        return ResponseEntity.ok(Map.of("summary", fallback, "raw", generatedText));
                     }
-                    // Fallback: unexpected structure — return body as raw and provide minimal structured object
-                    logger.warn("Unexpected Gemini response structure for feedback summary: {}", body);
-                    Map<String, Object> fallback = new java.util.HashMap<>();
-                    fallback.put("summary", body);
-                    fallback.put("themes", List.of());
-                    fallback.put("strengths", List.of());
-                    fallback.put("improvements", List.of());
-                    fallback.put("priority", "Medium");
-                    return ResponseEntity.ok(Map.of("summary", fallback, "raw", body));
-                } catch (Exception ex) {
-                    logger.error("Failed to parse Gemini response for feedback summary", ex);
-                    return ResponseEntity.badRequest().body("Failed to parse Gemini response: " + ex.getMessage());
                 }
+                // Fallback: unexpected structure — return body as raw and provide minimal structured object
+                logger.warn("Unexpected Gemini response structure for feedback summary: {}", body);
+                Map<String, Object> fallback = new java.util.HashMap<>();
+                fallback.put("summary", body);
+                fallback.put("themes", List.of());
+                fallback.put("strengths", List.of());
+                fallback.put("improvements", List.of());
+                fallback.put("priority", "Medium");
+                return ResponseEntity.ok(Map.of("summary", fallback, "raw", body));
+            } catch (Exception ex) {
+                logger.error("Failed to parse Gemini response for feedback summary", ex);
+                return ResponseEntity.badRequest().body("Failed to parse Gemini response: " + ex.getMessage());
             }
-
-            // Non-2xx status: log and return a server-side fallback summary so the frontend can still show useful info.
-            logger.error("Gemini feedback summary request failed: status={} body={}", status, body);
-            // Build a lightweight local summary as a fallback instead of returning a hard error to the client.
-            Map<String, Object> localFallback = generateLocalSummary(feedback);
-            // Include the external API body for diagnostics in 'raw'
-            return ResponseEntity.ok(Map.of("summary", localFallback, "raw", body));
         } catch (Exception e) {
             logger.error("Error in generateFeedbackSummary", e);
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -343,34 +288,9 @@ public class AIController {
                     prompt, selected, correct, courseTitle != null ? courseTitle : "General", topic != null ? topic : "General"
             );
 
-            Map<String, Object> payload = Map.of(
-                    "contents", List.of(Map.of(
-                            "role", "user",
-                            "parts", List.of(Map.of("text", aiPrompt))
-                    ))
-            );
-
-            String requestBody = objectMapper.writeValueAsString(payload);
-            String apiUrl = "https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent";
-
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(apiUrl + "?key=" + geminiApiKey))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                var root = objectMapper.readTree(response.body());
-                var candidates = root.path("candidates");
-                if (candidates.isArray() && candidates.size() > 0) {
-                    return candidates.get(0).path("content").path("parts").get(0).path("text").asText(
-                            "The correct answer is " + correct + ". Please review the course material for more details."
-                    );
-                }
-            }
+            String text = GeminiClient.textOf(geminiClient.generateContent(aiPrompt, null));
+            return text != null ? text
+                    : "The correct answer is " + correct + ". Please review the course material for more details.";
         } catch (Exception e) {
             // Fallback explanation
         }
@@ -1,21 +1,34 @@
 package com.skillforge.controller;
 
+import com.skillforge.dto.ActivitySummaryDTO;
 import com.skillforge.dto.CourseDTO;
+import com.skillforge.entity.Course;
 import com.skillforge.entity.User;
+import com.skillforge.event.UserRegisteredEvent;
 import com.skillforge.repository.UserRepository;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.QuizAttemptRepository;
+import com.skillforge.service.CourseAggregateService;
 import com.skillforge.service.CourseService;
+import com.skillforge.service.DailyRollupService;
 import com.skillforge.service.DashboardService;
+import com.skillforge.service.PrincipalCache;
+import com.skillforge.service.RecommendationCache;
+import com.skillforge.service.RefreshTokenService;
+import com.skillforge.service.ReportExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -39,9 +52,30 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private CourseAggregateService courseAggregateService;
+
     @GetMapping("/test")
     public ResponseEntity<?> testEndpoint() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -114,6 +148,8 @@ public class AdminController {
             }
 
             User user = userOpt.get();
+            String previousEmail = user.getEmail();
+            User.Role previousRole = user.getRole();
             if (userUpdate.getFirstName() != null) {
                 user.setFirstName(userUpdate.getFirstName());
             }
@@ -128,6 +164,12 @@ public class AdminController {
             }
 
             User updated = userRepository.save(user);
+            principalCache.invalidate(previousEmail);
+            principalCache.invalidate(updated.getEmail());
+            // Issued tokens carry the old role and email; revoking them holds across restarts and instances
+            if (updated.getRole() != previousRole || !Objects.equals(updated.getEmail(), previousEmail)) {
+                refreshTokenService.revokeAllForUser(id);
+            }
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -137,8 +179,11 @@ public class AdminController {
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
-            if (userRepository.existsById(id)) {
+            Optional<User> existing = userRepository.findById(id);
+            if (existing.isPresent()) {
                 userRepository.deleteById(id);
+                principalCache.invalidate(existing.get().getEmail());
+                refreshTokenService.revokeAllForUser(id);
                 return ResponseEntity.ok("User deleted successfully");
             } else {
                 return ResponseEntity.notFound().build();
@@ -148,6 +193,20 @@ public class AdminController {
         }
     }
 
+    // Signs the user out everywhere: refresh tokens stop working and issued access tokens are rejected
+    @PostMapping("/users/{id}/revoke-sessions")
+    public ResponseEntity<?> revokeUserSessions(@PathVariable Long id) {
+        try {
+            if (!userRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            int revoked = refreshTokenService.revokeAllForUser(id);
+            return ResponseEntity.ok(Map.of("revokedSessions", revoked));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/courses")
     public ResponseEntity<?> getAllCourses() {
         try {
@@ -205,6 +264,7 @@ public class AdminController {
     public ResponseEntity<?> createUser(@RequestBody User newUser) {
         try {
             User created = userRepository.save(newUser);
+            eventPublisher.publishEvent(new UserRegisteredEvent(created.getId(), created.getCreatedAt()));
             return ResponseEntity.ok(created);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -222,8 +282,13 @@ public class AdminController {
             User user = userOpt.get();
             String roleStr = roleUpdate.get("role");
             if (roleStr != null) {
+                User.Role previousRole = user.getRole();
                 user.setRole(User.Role.valueOf(roleStr));
                 userRepository.save(user);
+                principalCache.invalidate(user.getEmail());
+                if (user.getRole() != previousRole) {
+                    refreshTokenService.revokeAllForUser(id);
+                }
                 return ResponseEntity.ok("Role updated successfully");
             }
             return ResponseEntity.badRequest().body("Role is required");
@@ -258,37 +323,58 @@ public class AdminController {
     @GetMapping("/reports")
     public ResponseEntity<?> getReports(@RequestParam(defaultValue = "30") int days) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            System.out.println("Reports endpoint accessed by: " + (authentication != null ? authentication.getName() : "anonymous"));
-            System.out.println("User authorities: " + (authentication != null ? authentication.getAuthorities() : "none"));
-
             long totalUsers = userRepository.count();
             long students = userRepository.countByRole(User.Role.STUDENT);
             long instructors = userRepository.countByRole(User.Role.INSTRUCTOR);
             long admins = userRepository.countByRole(User.Role.ADMIN);
 
+            // Period figures come from the daily rollups, one row per day (and per course)
+            ActivitySummaryDTO period = dailyRollupService.summarize(days);
+
+            String mostPopular = courseTitle(period.getMostPopularCourseId());
+            // Average rating over all feedback, from the per-course aggregates
+            String highestRated = courseTitle(courseAggregateService.highestRatedCourseId());
+
+            // Share of the period's enrollments that were not dropped again within it
+            long retained = Math.max(0, period.getEnrollments() - period.getUnenrollments());
+            long completionRate = period.getEnrollments() > 0
+                    ? Math.round(retained * 100.0 / period.getEnrollments()) : 0;
+
+            // Most recent active days first
+            List<Map<String, Object>> recentActivity = new ArrayList<>();
+            List<ActivitySummaryDTO.DailyActivity> daily = period.getDaily();
+            for (int i = daily.size() - 1; i >= 0 && recentActivity.size() < 7; i--) {
+                ActivitySummaryDTO.DailyActivity day = daily.get(i);
+                recentActivity.add(Map.of(
+                        "action", "Daily activity",
+                        "details", day.getAttempts() + " quiz attempts, " + day.getEnrollments()
+                                + " enrollments, " + day.getNewUsers() + " new users",
+                        "timestamp", day.getDate().atStartOfDay()
+                ));
+            }
+
             Map<String, Object> reports = Map.of(
                     "userStats", Map.of(
                             "total", totalUsers,
                             "students", students,
                             "instructors", instructors,
                             "admins", admins,
-                            "newUsers", 0, // TODO: implement time-based queries
-                            "activeUsers", totalUsers
+                            "newUsers", period.getNewUsers(),
+                            "activeUsers", period.getActiveUsers()
                     ),
                     "courseStats", Map.of(
                             "total", courseRepository.count(),
-                            "active", courseRepository.count(),
-                            "enrollments", 0,
-                            "completionRate", 85,
-                            "mostPopular", "React Fundamentals",
-                            "highestRated", "Advanced JavaScript"
+                            "active", period.getActiveCourses(),
+                            "enrollments", period.getEnrollments(),
+                            "completionRate", completionRate,
+                            "mostPopular", mostPopular,
+                            "highestRated", highestRated
                     ),
                     "quizStats", Map.of(
-                            "attempts", quizAttemptRepository.count(),
-                            "avgScore", 75.5
+                            "attempts", period.getAttempts(),
+                            "avgScore", period.getAverageScore()
                     ),
-                    "recentActivity", List.of()
+                    "recentActivity", recentActivity
             );
             return ResponseEntity.ok(reports);
         } catch (Exception e) {
@@ -296,17 +382,29 @@ public class AdminController {
         }
     }
 
+    private String courseTitle(Long courseId) {
+        return courseId == null ? "N/A" : courseRepository.findById(courseId).map(Course::getTitle).orElse("N/A");
+    }
+
+    // Streamed from a JDBC cursor on an async thread; add format=jsonl and/or gzip=true as needed
     @GetMapping("/export/{type}")
-    public ResponseEntity<?> exportReport(@PathVariable String type) {
+    public ResponseEntity<StreamingResponseBody> exportReport(@PathVariable String type,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          @RequestParam(defaultValue = "false") boolean gzip) {
         try {
-            // TODO: implement actual CSV export
-            String csvData = "Name,Email,Role\nJohn Doe,john@example.com,STUDENT\n";
+            ReportExportService.ExportType exportType = ReportExportService.ExportType.fromPath(type);
+            ReportExportService.ExportFormat exportFormat = ReportExportService.ExportFormat.fromParam(format);
+
+            String fileName = exportType.getFileName() + "_report." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+            StreamingResponseBody body = out -> reportExportService.export(exportType, exportFormat, gzip, out);
             return ResponseEntity.ok()
-                    .header("Content-Type", "text/csv")
-                    .header("Content-Disposition", "attachment; filename=" + type + "_report.csv")
-                    .body(csvData);
+                    .header("Content-Type", gzip ? "application/gzip" : exportFormat.getContentType() + "; charset=UTF-8")
+                    .header("Content-Disposition", "attachment; filename=" + fileName)
+                    .body(body);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            // The return type must stay StreamingResponseBody, so the error text is streamed too
+            byte[] error = ("Error: " + e.getMessage()).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().body(out -> out.write(error));
         }
     }
 
@@ -345,7 +443,8 @@ public class AdminController {
     @PostMapping("/clear-cache")
     public ResponseEntity<?> clearCache() {
         try {
-            // TODO: implement cache clearing
+            recommendationCache.invalidateAll();
+            principalCache.invalidateAll();
             return ResponseEntity.ok("Cache cleared successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -1,6 +1,7 @@
 package com.skillforge.controller;
 
 import com.skillforge.service.AnalyticsService;
+import com.skillforge.service.ItemStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,9 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private ItemStatsService itemStatsService;
+
     @GetMapping("/student/{id}")
     public ResponseEntity<List<Map<String, Object>>> studentAnalytics(@PathVariable Long id) {
         return ResponseEntity.ok(analyticsService.studentAnalytics(id));
@@ -30,4 +34,14 @@ public class AnalyticsController {
     public ResponseEntity<Map<String, Object>> instructorAnalytics(@PathVariable Long id) {
         return ResponseEntity.ok(analyticsService.instructorAnalytics(id));
     }
+
+    // Per-question difficulty, discrimination and option picks
+    @GetMapping("/quiz/{quizId}/items")
+    public ResponseEntity<?> quizItemAnalysis(@PathVariable Long quizId) {
+        try {
+            return ResponseEntity.ok(itemStatsService.itemAnalysis(quizId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 }
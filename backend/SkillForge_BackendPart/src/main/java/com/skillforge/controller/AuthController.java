@@ -6,8 +6,13 @@ import com.skillforge.dto.RegisterRequest;
 import com.skillforge.entity.User;
 import com.skillforge.repository.UserRepository;
 import com.skillforge.service.AuthService;
+import com.skillforge.service.LoginThrottledException;
+import com.skillforge.service.PrincipalCache;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +32,9 @@ public class AuthController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
         try {
@@ -34,6 +42,8 @@ public class AuthController {
             AuthResponse response = authService.register(request);
             System.out.println("Registration successful for email: " + request.getEmail());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             System.err.println("Registration failed for email: " + request.getEmail() + ", Error: " + e.getMessage());
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -90,6 +100,7 @@ public class AuthController {
             User user = userOpt.get();
             user.setRole(User.Role.ADMIN);
             userRepository.save(user);
+            principalCache.invalidate(user.getEmail());
 
             return ResponseEntity.ok(Map.of(
                     "message", "User promoted to admin successfully",
@@ -102,12 +113,39 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.login(request);
+            AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> payload) {
+        try {
+            return ResponseEntity.ok(authService.refresh(payload.get("refreshToken")));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody Map<String, String> payload) {
+        try {
+            authService.logout(payload.get("refreshToken"));
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> tooManyRequests(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Error: " + e.getMessage());
+    }
 }
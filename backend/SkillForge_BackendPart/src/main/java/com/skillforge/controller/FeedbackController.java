@@ -3,11 +3,14 @@ package com.skillforge.controller;
 import com.skillforge.entity.Feedback;
 import com.skillforge.entity.Course;
 import com.skillforge.entity.User;
+import com.skillforge.event.FeedbackSubmittedEvent;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.FeedbackRepository;
 import com.skillforge.repository.UserRepository;
 import com.skillforge.repository.QuizAttemptRepository;
+import com.skillforge.service.SentimentScorer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,6 +34,12 @@ public class FeedbackController {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SentimentScorer sentimentScorer;
+
     @PostMapping("/{courseId}/feedback")
     public ResponseEntity<?> submitFeedback(@PathVariable Long courseId,
                                             @RequestParam(required = false) Long userId,
@@ -59,9 +68,14 @@ public class FeedbackController {
         f.setUser(user);
         f.setRating(body.getRating());
         f.setComments(body.getComments());
+        if (body.getComments() != null && !body.getComments().trim().isEmpty()) {
+            f.setSentiment(sentimentScorer.score(body.getComments()));
+        }
         f.setTopics(body.getTopics());
         f.setCreatedAt(LocalDateTime.now());
-        return ResponseEntity.ok(feedbackRepository.save(f));
+        Feedback saved = feedbackRepository.save(f);
+        eventPublisher.publishEvent(new FeedbackSubmittedEvent(courseId, actualUserId, saved.getRating(), saved.getSentiment()));
+        return ResponseEntity.ok(saved);
     }
 
     @GetMapping("/{courseId}/feedback")
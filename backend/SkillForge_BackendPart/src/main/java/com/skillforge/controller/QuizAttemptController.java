@@ -12,7 +12,13 @@ import com.skillforge.repository.QuestionRepository;
 import com.skillforge.repository.QuizAttemptRepository;
 import com.skillforge.repository.QuizRepository;
 import com.skillforge.repository.UserRepository;
+import com.skillforge.service.AnswerKey;
+import com.skillforge.service.AnswerKeyCache;
+import com.skillforge.service.AttemptAnswerService;
+import com.skillforge.service.ExplanationService;
 import com.skillforge.service.QuizService;
+import com.skillforge.service.QuizSessionService;
+import com.skillforge.service.QuizSubmissionService;
 import com.skillforge.service.GeminiService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +27,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -53,6 +58,21 @@ public class QuizAttemptController {
     @Autowired
     private GeminiConfig geminiConfig;
 
+    @Autowired
+    private AttemptAnswerService attemptAnswers;
+
+    @Autowired
+    private ExplanationService explanationService;
+
+    @Autowired
+    private QuizSubmissionService quizSubmissionService;
+
+    @Autowired
+    private QuizSessionService quizSessionService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
     @PostMapping("/submit")
     public ResponseEntity<?> submitQuiz(@RequestBody QuizSubmissionDTO submission) {
         try {
@@ -72,58 +92,20 @@ public class QuizAttemptController {
                 }
             }
 
-            Quiz quiz = quizRepository.findById(submission.getQuizId())
-                    .orElseThrow(() -> new RuntimeException("Quiz not found"));
-
-            User student = userRepository.findById(studentId)
-                    .orElseThrow(() -> new RuntimeException("Student not found"));
-
-            int correct = 0;
-            int total = quiz.getQuestions().size();
-            List<com.skillforge.dto.WrongAnswerDTO> wrongAnswers = new ArrayList<>();
-
-            for (Question question : quiz.getQuestions()) {
-                String studentAnswer = submission.getAnswers().get(question.getId());
-                if (studentAnswer != null && question.getCorrectAnswer() != null && studentAnswer.trim().equalsIgnoreCase(question.getCorrectAnswer().trim())) {
-                    correct++;
-                } else {
-                    try {
-                        List<String> options = new ArrayList<>();
-                        if (question.getOptionsJson() != null) {
-                            options = objectMapper.readValue(question.getOptionsJson(), List.class);
-                        }
-                        wrongAnswers.add(new com.skillforge.dto.WrongAnswerDTO(
-                                question.getId(),
-                                question.getPrompt(),
-                                studentAnswer,
-                                question.getCorrectAnswer(),
-                                options
-                        ));
-                    } catch (Exception ignored) {
-                    }
+            // A time limit is only enforced by the session's clock, so timed quizzes are submitted through it.
+            // The cached answer key knows the limit, so this costs no query.
+            AnswerKey key = answerKeyCache.get(submission.getQuizId());
+            if (key.isTimed()) {
+                QuizScoreResponse viaSession = quizSessionService.finishOpen(key.getQuizId(), studentId, email,
+                        submission.getAnswers(), submission.getStudentFeedback());
+                if (viaSession == null) {
+                    return ResponseEntity.badRequest().body("Error: This quiz is timed; start it before submitting");
                 }
+                return ResponseEntity.ok(viaSession);
             }
 
-            double score = total > 0 ? (double) correct / total * 100 : 0;
-
-            QuizAttempt attempt = new QuizAttempt();
-            attempt.setQuiz(quiz);
-            attempt.setStudent(student);
-            attempt.setScore(score);
-            attempt.setAttemptedAt(LocalDateTime.now());
-            attempt.setAnswersJson(objectMapper.writeValueAsString(submission.getAnswers()));
-            attempt.setFeedback(submission.getStudentFeedback());
-
-            QuizAttempt saved = repo.save(attempt);
-
-            QuizScoreResponse response = new QuizScoreResponse();
-            response.setAttemptId(saved.getId());
-            response.setScore(score);
-            response.setTotalQuestions(total);
-            response.setCorrectAnswers(correct);
-            response.setFeedback(submission.getStudentFeedback());
-            response.setWrongAnswers(wrongAnswers);
-
+            QuizScoreResponse response = quizSubmissionService.submit(submission.getQuizId(), studentId,
+                    submission.getAnswers(), submission.getStudentFeedback());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -157,6 +139,18 @@ public class QuizAttemptController {
         }
     }
 
+    // Answers of an attempt as {questionId, chosenOption, answer}
+    @GetMapping("/{attemptId}/answers")
+    public ResponseEntity<?> getAttemptAnswers(@PathVariable Long attemptId) {
+        try {
+            QuizAttempt attempt = repo.findById(attemptId).orElse(null);
+            if (attempt == null) return ResponseEntity.badRequest().body("Attempt not found");
+            return ResponseEntity.ok(attemptAnswers.describe(attempt));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/quiz/{quizId}/clarify-question")
     public ResponseEntity<?> clarifyQuestionDuringQuiz(@PathVariable Long quizId, @RequestBody Map<String, Object> payload) {
         try {
@@ -172,12 +166,13 @@ public class QuizAttemptController {
             Question question = questionRepository.findById(questionId).orElse(null);
             if (question == null) return ResponseEntity.badRequest().body("Question not found");
 
-            String prompt = buildClarifyPrompt(question, studentAnswer, query);
             String apiKey = geminiConfig.getApiKey();
             if (apiKey == null || apiKey.isEmpty()) return ResponseEntity.badRequest().body("Gemini API key is not configured");
 
-            String explanation = geminiService.generateText(prompt, apiKey);
-            return ResponseEntity.ok(Map.of("explanation", explanation != null ? explanation.trim() : ""));
+            // Stored per question, normalized answer and query; identical concurrent requests share one call
+            String explanation = explanationService.explain(quiz, question, studentAnswer, query,
+                    () -> geminiService.generateText(buildClarifyPrompt(question, studentAnswer, query)));
+            return ResponseEntity.ok(Map.of("explanation", explanation));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -200,15 +195,15 @@ public class QuizAttemptController {
             Question question = questionRepository.findById(questionId).orElse(null);
             if (question == null) return ResponseEntity.badRequest().body("Question not found");
 
-            Map<Long, String> answers = objectMapper.readValue(attempt.getAnswersJson(), Map.class);
-            String studentAnswer = answers != null ? answers.get(questionId) : null;
+            String studentAnswer = attemptAnswers.answersOf(attempt).get(questionId);
 
-            String prompt = buildClarifyPrompt(question, studentAnswer, query);
             String apiKey = geminiConfig.getApiKey();
             if (apiKey == null || apiKey.isEmpty()) return ResponseEntity.badRequest().body("Gemini API key is not configured");
 
-            String explanation = geminiService.generateText(prompt, apiKey);
-            return ResponseEntity.ok(Map.of("explanation", explanation != null ? explanation.trim() : ""));
+            // Stored per question, normalized answer and query; identical concurrent requests share one call
+            String explanation = explanationService.explain(quiz, question, studentAnswer, query,
+                    () -> geminiService.generateText(buildClarifyPrompt(question, studentAnswer, query)));
+            return ResponseEntity.ok(Map.of("explanation", explanation));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -1,9 +1,13 @@
 package com.skillforge.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,12 +15,19 @@ import com.skillforge.dto.QuizGenerationRequest;
 import com.skillforge.entity.Course;
 import com.skillforge.entity.Quiz;
 import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.QuizGenerationJob;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.QuizAttemptRepository;
+import com.skillforge.repository.QuizRepository;
+import com.skillforge.service.GenerationQueueFullException;
+import com.skillforge.service.QuizGenerationService;
+import com.skillforge.service.QuizPayloadCache;
 import com.skillforge.service.QuizService;
 
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/quizzes")
@@ -32,11 +43,19 @@ public class QuizController {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
-    @Value("${gemini.api.key:}")
-    private String geminiApiKey;
+    @Autowired
+    private QuizPayloadCache quizPayloadCache;
+
+    @Autowired
+    private QuizRepository quizRepository;
 
+    @Autowired
+    private QuizGenerationService quizGenerationService;
+
+    // AI generation runs as a job (see /api/quiz-generation-jobs); the response is completed
+    // asynchronously, so the request thread is not held while Gemini answers
     @PostMapping("/generate")
-    public ResponseEntity<?> generateQuiz(@RequestBody QuizGenerationRequest request) {
+    public CompletableFuture<ResponseEntity<?>> generateQuiz(@RequestBody QuizGenerationRequest request) {
         // Note: This endpoint is also accessible via /api/quiz/generate for backward compatibility
         try {
             Integer count = request.getNumberOfQuestions();
@@ -46,12 +65,12 @@ public class QuizController {
 
             Long courseId = request.getCourseId();
             if (courseId == null) {
-                return ResponseEntity.badRequest().body("Missing courseId");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Missing courseId"));
             }
 
             Course course = courseRepository.findById(courseId).orElse(null);
             if (course == null) {
-                return ResponseEntity.badRequest().body("Course not found");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Course not found"));
             }
 
             // ✅ Get logged-in instructor from JWT
@@ -60,20 +79,22 @@ public class QuizController {
             Long instructorId = quizService.getUserIdByEmail(email);
 
             if (course.getInstructor() == null || !course.getInstructor().getId().equals(instructorId)) {
-                return ResponseEntity.status(403).body("Instructor not authorized for this course");
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.status(403).body("Instructor not authorized for this course"));
             }
 
             // ✅ Generate using AI
             if ("AI".equalsIgnoreCase(request.getGenerationType()) || request.getTopic() != null) {
-                Quiz quiz = quizService.generateQuizFromTopic(
+                QuizGenerationJob job = quizGenerationService.submitQuiz(
+                        instructorId,
                         request.getTopic() != null ? request.getTopic() : course.getTitle(),
                         instructorId,
-                        geminiApiKey,
                         courseId,
                         request.getTimeLimitMinutes(),
                         count
                 );
-                return ResponseEntity.ok(quiz);
+                return quizGenerationService.completion(job.getId())
+                        .thenApply(done -> generationResponse(done, "Error generating quiz: "));
             }
 
             // ✅ Manual quiz creation
@@ -84,33 +105,67 @@ public class QuizController {
                     request.getQuestions(),
                     request.getTimeLimitMinutes()
             );
-            return ResponseEntity.ok(created);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(created));
 
+        } catch (GenerationQueueFullException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Error: " + e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
-            String errorMessage = "Error generating quiz: " + e.getMessage();
-            
-            // Provide more helpful error messages
-            if (e.getMessage() != null) {
-                if (e.getMessage().contains("Gemini API key")) {
-                    errorMessage = "Gemini API key is not configured. Please set gemini.api.key in application.properties";
-                } else if (e.getMessage().contains("parse JSON")) {
-                    errorMessage = "Failed to parse AI response. The AI may have returned invalid JSON format. " + e.getMessage();
-                } else if (e.getMessage().contains("missing 'questions'")) {
-                    errorMessage = "AI response format is incorrect. Expected JSON with 'questions' array. " + e.getMessage();
-                }
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(generationError("Error generating quiz: ", e.getMessage())));
+        }
+    }
+
+    // The saved quiz (with answers), as the synchronous endpoint used to return it
+    private ResponseEntity<?> generationResponse(QuizGenerationJob job, String errorPrefix) {
+        if (job == null) {
+            return ResponseEntity.badRequest().body(errorPrefix + "job not found");
+        }
+        try {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(quizGenerationService.resultBody(job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(generationError(errorPrefix, e.getMessage()));
+        }
+    }
+
+    // Provide more helpful error messages
+    private static String generationError(String prefix, String message) {
+        if (message != null) {
+            if (message.contains("Gemini API key")) {
+                return "Gemini API key is not configured. Please set gemini.api.key in application.properties";
+            } else if (message.contains("parse JSON")) {
+                return "Failed to parse AI response. The AI may have returned invalid JSON format. " + message;
+            } else if (message.contains("missing 'questions'")) {
+                return "AI response format is incorrect. Expected JSON with 'questions' array. " + message;
             }
-            
-            return ResponseEntity.badRequest().body(errorMessage);
         }
+        return prefix + message;
     }
 
     // ✅ Get quizzes by course ID - for students enrolled in the course
+    // Built from the same pre-rendered payloads as GET /{quizId}, so students never see correct answers
     @GetMapping("/course/{courseId}")
     public ResponseEntity<?> getQuizzesByCourse(@PathVariable Long courseId) {
         try {
-            List<Quiz> quizzes = quizService.getQuizzesByCourse(courseId);
-            return ResponseEntity.ok(quizzes);
+            boolean forStudent = !canSeeAnswers();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            body.write('[');
+            boolean first = true;
+            for (Long quizId : quizRepository.findIdsByCourseId(courseId)) {
+                QuizPayloadCache.Payload payload = quizPayloadCache.get(quizId, forStudent);
+                if (payload == null) {
+                    continue;
+                }
+                if (!first) {
+                    body.write(',');
+                }
+                body.writeBytes(payload.getBody());
+                first = false;
+            }
+            body.write(']');
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body.toByteArray());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body("Error fetching quizzes: " + e.getMessage());
@@ -118,23 +173,90 @@ public class QuizController {
     }
 
     // ✅ Get quiz by ID - for taking the quiz
+    // Served from pre-rendered bytes; students get the variant without correct answers
     @GetMapping("/{quizId}")
-    public ResponseEntity<?> getQuizById(@PathVariable Long quizId) {
+    public ResponseEntity<?> getQuizById(@PathVariable Long quizId,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Quiz quiz = quizService.getQuizById(quizId);
-            if (quiz == null) {
+            QuizPayloadCache.Payload payload = quizPayloadCache.get(quizId, !canSeeAnswers());
+            if (payload == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(quiz);
+            return payloadResponse(payload, ifNoneMatch);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body("Error fetching quiz: " + e.getMessage());
         }
     }
 
+    // ✅ Quiz with correct answers, for reviewing a submitted attempt
+    @GetMapping("/{quizId}/review")
+    public ResponseEntity<?> getQuizForReview(@PathVariable Long quizId,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            if (!canSeeAnswers()) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                Long studentId = auth != null ? quizService.getUserIdByEmail(auth.getName()) : null;
+                if (studentId == null || !quizAttemptRepository.existsByQuizIdAndStudentId(quizId, studentId)) {
+                    return ResponseEntity.status(403).body("Answers are available after attempting the quiz");
+                }
+            }
+            QuizPayloadCache.Payload payload = quizPayloadCache.get(quizId, false);
+            if (payload == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return payloadResponse(payload, ifNoneMatch);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body("Error fetching quiz: " + e.getMessage());
+        }
+    }
+
+    private static boolean canSeeAnswers() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            return false;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if ("ROLE_INSTRUCTOR".equals(authority.getAuthority()) || "ROLE_ADMIN".equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 304 when the client already holds this version; clients revalidate on every use
+    private static ResponseEntity<?> payloadResponse(QuizPayloadCache.Payload payload, String ifNoneMatch) {
+        if (etagMatches(ifNoneMatch, payload.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(payload.getEtag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(payload.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload.getBody());
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // ✅ Generate improvement quiz based on student's previous attempts
     @PostMapping("/generate-improvement")
-    public ResponseEntity<?> generateImprovementQuiz(@RequestBody Map<String, Object> request) {
+    public CompletableFuture<ResponseEntity<?>> generateImprovementQuiz(@RequestBody Map<String, Object> request) {
         try {
             Long originalQuizId = Long.valueOf(request.get("originalQuizId").toString());
             Long courseId = Long.valueOf(request.get("courseId").toString());
@@ -146,13 +268,13 @@ public class QuizController {
             Long studentId = quizService.getUserIdByEmail(email);
 
             if (studentId == null) {
-                return ResponseEntity.status(401).body("Student not authenticated");
+                return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Student not authenticated"));
             }
 
             // Get original quiz
             Quiz originalQuiz = quizService.getQuizById(originalQuizId);
             if (originalQuiz == null) {
-                return ResponseEntity.badRequest().body("Original quiz not found");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Original quiz not found"));
             }
 
             // Get student's attempts for this quiz
@@ -162,7 +284,8 @@ public class QuizController {
                     .toList();
 
             if (attempts.isEmpty()) {
-                return ResponseEntity.badRequest().body("No attempts found for this quiz");
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.badRequest().body("No attempts found for this quiz"));
             }
 
             // Analyze performance and generate improvement quiz
@@ -183,20 +306,25 @@ public class QuizController {
             );
 
             // Generate improvement quiz using AI
-            Quiz improvementQuiz = quizService.generateQuizFromTopic(
+            QuizGenerationJob job = quizGenerationService.submitQuiz(
+                    studentId,
                     improvementPrompt,
                     originalQuiz.getInstructor().getId(), // Use same instructor
-                    geminiApiKey,
                     courseId,
                     originalQuiz.getTimeLimitMinutes(),
                     originalQuiz.getQuestions().size()
             );
 
-            return ResponseEntity.ok(improvementQuiz);
+            return quizGenerationService.completion(job.getId())
+                    .thenApply(done -> generationResponse(done, "Error generating improvement quiz: "));
 
+        } catch (GenerationQueueFullException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Error: " + e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.badRequest().body("Error generating improvement quiz: " + e.getMessage());
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Error generating improvement quiz: " + e.getMessage()));
         }
     }
 }
@@ -0,0 +1,121 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.QuizGenerationRequest;
+import com.skillforge.entity.Course;
+import com.skillforge.entity.QuizGenerationJob;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.service.GenerationQueueFullException;
+import com.skillforge.service.QuizGenerationService;
+import com.skillforge.service.QuizService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+// Quiz generation without holding a request open: submit, then poll the job or follow its events
+@RestController
+@RequestMapping("/api/quiz-generation-jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class QuizGenerationJobController {
+
+    @Autowired
+    private QuizGenerationService quizGenerationService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    // Same request as POST /api/quizzes/generate (AI); the quiz is saved when the job succeeds
+    @PostMapping
+    public ResponseEntity<?> submitQuiz(@RequestBody QuizGenerationRequest request) {
+        try {
+            Integer count = request.getNumberOfQuestions();
+            if (count == null || count <= 0) {
+                count = 5;
+            }
+            Long courseId = request.getCourseId();
+            if (courseId == null) {
+                return ResponseEntity.badRequest().body("Missing courseId");
+            }
+            Course course = courseRepository.findById(courseId).orElse(null);
+            if (course == null) {
+                return ResponseEntity.badRequest().body("Course not found");
+            }
+            Long instructorId = quizService.getUserIdByEmail(currentEmail());
+            if (course.getInstructor() == null || !course.getInstructor().getId().equals(instructorId)) {
+                return ResponseEntity.status(403).body("Instructor not authorized for this course");
+            }
+            QuizGenerationJob job = quizGenerationService.submitQuiz(instructorId,
+                    request.getTopic() != null ? request.getTopic() : course.getTitle(),
+                    instructorId, courseId, request.getTimeLimitMinutes(), count);
+            return ResponseEntity.accepted().body(quizGenerationService.describe(job));
+        } catch (GenerationQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Same request as POST /api/ai/gemini-generate-quiz; the result is the generated text
+    @PostMapping("/preview")
+    public ResponseEntity<?> submitPreview(@RequestBody Map<String, Object> request) {
+        try {
+            String topic = (String) request.get("topic");
+            Integer questionCount = (Integer) request.get("questionCount");
+            if (topic == null || questionCount == null) {
+                return ResponseEntity.badRequest().body("Missing required fields: topic, questionCount");
+            }
+            QuizGenerationJob job = quizGenerationService.submitPreview(quizService.getUserIdByEmail(currentEmail()),
+                    topic, questionCount, (String) request.get("difficulty"), (String) request.get("courseContext"),
+                    (String) request.get("prompt"));
+            return ResponseEntity.accepted().body(quizGenerationService.describe(job));
+        } catch (GenerationQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> get(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(quizGenerationService.get(jobId, currentEmail()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 202 with the status while the job is still queued or running
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> result(@PathVariable Long jobId) {
+        try {
+            QuizGenerationJob job = quizGenerationService.owned(jobId, currentEmail());
+            if (!job.isFinished()) {
+                return ResponseEntity.accepted().body(quizGenerationService.describe(job));
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(quizGenerationService.resultBody(job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Server-sent "status" events, ending after the job finishes
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long jobId) {
+        return quizGenerationService.subscribe(jobId, currentEmail());
+    }
+
+    private static String currentEmail() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.QuizSubmissionDTO;
+import com.skillforge.service.QuizSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/quiz-sessions")
+@CrossOrigin(origins = "http://localhost:3000")
+public class QuizSessionController {
+
+    @Autowired
+    private QuizSessionService quizSessionService;
+
+    // Starts (or resumes) the caller's session for a quiz; the clock starts here
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestBody QuizSubmissionDTO request) {
+        try {
+            return ResponseEntity.ok(quizSessionService.start(request.getQuizId(), currentEmail()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<?> get(@PathVariable Long sessionId) {
+        try {
+            return ResponseEntity.ok(quizSessionService.get(sessionId, currentEmail()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Autosave: kept in memory and written to the database in periodic batches
+    @PutMapping("/{sessionId}/answers")
+    public ResponseEntity<?> autosave(@PathVariable Long sessionId, @RequestBody QuizSubmissionDTO request) {
+        try {
+            return ResponseEntity.ok(quizSessionService.autosave(sessionId, currentEmail(), request.getAnswers()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{sessionId}/finish")
+    public ResponseEntity<?> finish(@PathVariable Long sessionId, @RequestBody QuizSubmissionDTO request) {
+        try {
+            return ResponseEntity.ok(quizSessionService.finish(sessionId, currentEmail(), request.getAnswers(),
+                    request.getStudentFeedback()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    private static String currentEmail() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
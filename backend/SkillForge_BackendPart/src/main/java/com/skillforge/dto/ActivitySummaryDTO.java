@@ -0,0 +1,155 @@
+package com.skillforge.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Platform activity over a window of days, read from the daily rollup tables
+ * (active users, which cannot be summed across days, from the attempts).
+ */
+public class ActivitySummaryDTO {
+
+    private LocalDate from;
+    private long newUsers;
+    private long attempts;
+    private double averageScore;
+    private long enrollments;
+    private long unenrollments;
+    private long activeCourses;
+    private long activeUsers;
+    private Long mostPopularCourseId;
+    private List<DailyActivity> daily = new ArrayList<>();
+
+    public ActivitySummaryDTO() {}
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public long getNewUsers() {
+        return newUsers;
+    }
+
+    public void setNewUsers(long newUsers) {
+        this.newUsers = newUsers;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public void setAverageScore(double averageScore) {
+        this.averageScore = averageScore;
+    }
+
+    public long getEnrollments() {
+        return enrollments;
+    }
+
+    public void setEnrollments(long enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    public long getUnenrollments() {
+        return unenrollments;
+    }
+
+    public void setUnenrollments(long unenrollments) {
+        this.unenrollments = unenrollments;
+    }
+
+    public long getActiveCourses() {
+        return activeCourses;
+    }
+
+    public void setActiveCourses(long activeCourses) {
+        this.activeCourses = activeCourses;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public Long getMostPopularCourseId() {
+        return mostPopularCourseId;
+    }
+
+    public void setMostPopularCourseId(Long mostPopularCourseId) {
+        this.mostPopularCourseId = mostPopularCourseId;
+    }
+
+    public List<DailyActivity> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<DailyActivity> daily) {
+        this.daily = daily;
+    }
+
+    /** Totals for one day; days without any activity are omitted. */
+    public static class DailyActivity {
+
+        private final LocalDate date;
+        private long attempts;
+        private long enrollments;
+        private long unenrollments;
+        private long newUsers;
+
+        public DailyActivity(LocalDate date) {
+            this.date = date;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(long attempts) {
+            this.attempts = attempts;
+        }
+
+        public long getEnrollments() {
+            return enrollments;
+        }
+
+        public void setEnrollments(long enrollments) {
+            this.enrollments = enrollments;
+        }
+
+        public long getUnenrollments() {
+            return unenrollments;
+        }
+
+        public void setUnenrollments(long unenrollments) {
+            this.unenrollments = unenrollments;
+        }
+
+        public long getNewUsers() {
+            return newUsers;
+        }
+
+        public void setNewUsers(long newUsers) {
+            this.newUsers = newUsers;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.skillforge.entity.User;
 public class AuthResponse {
     
     private String token;
+    private String refreshToken;
     private User user;
     
     // Constructors
@@ -15,6 +16,12 @@ public class AuthResponse {
         this.user = user;
     }
     
+    public AuthResponse(String token, String refreshToken, User user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+    
     // Getters and Setters
     public String getToken() {
         return token;
@@ -24,6 +31,14 @@ public class AuthResponse {
         this.token = token;
     }
     
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
     public User getUser() {
         return user;
     }
@@ -0,0 +1,27 @@
+package com.skillforge.dto;
+
+/**
+ * Quiz attempt statistics for one course, computed by the database
+ * (see QuizAttemptRepository). "Valid" attempts are those with a
+ * non-negative score; averages and extremes are null when there are none.
+ */
+public interface CourseAttemptStats {
+
+    Long getCourseId();
+
+    // Every attempt row, including ungraded ones
+    Long getAttemptCount();
+
+    // Attempts with a non-null score
+    Long getScoredCount();
+
+    Double getScoredAverage();
+
+    Long getValidCount();
+
+    Double getValidAverage();
+
+    Double getHighestScore();
+
+    Double getLowestScore();
+}
@@ -0,0 +1,21 @@
+package com.skillforge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the "latest attempts per course" query in QuizAttemptRepository.
+ */
+public interface RecentAttemptView {
+
+    Long getId();
+
+    Long getQuizId();
+
+    String getQuizTitle();
+
+    Long getCourseId();
+
+    Double getScore();
+
+    LocalDateTime getAttemptedAt();
+}
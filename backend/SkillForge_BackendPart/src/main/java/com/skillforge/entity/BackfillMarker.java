@@ -0,0 +1,36 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Records that a one-off backfill has completed. It is written in the same
+ * transaction as the backfilled rows, so a backfill either ran completely
+ * or runs again on the next startup, and never runs twice.
+ */
+@Entity
+@Table(name = "backfill_markers")
+public class BackfillMarker {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    public BackfillMarker() {}
+
+    public BackfillMarker(String name, LocalDateTime completedAt) {
+        this.name = name;
+        this.completedAt = completedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -0,0 +1,140 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized per-course counters used by the recommender. Rows are kept up to
+ * date incrementally by CourseAggregateService so that recommendations never
+ * have to scan enrollments or feedback for the whole catalog.
+ */
+@Entity
+@Table(name = "course_aggregates", indexes = {
+        @Index(name = "idx_course_aggregates_base_score", columnList = "base_score")
+})
+public class CourseAggregate {
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "active_enrollments", nullable = false)
+    private long activeEnrollments;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "sentiment_sum", nullable = false)
+    private double sentimentSum;
+
+    @Column(name = "sentiment_count", nullable = false)
+    private long sentimentCount;
+
+    // Recommendation score of this course for a student with no history in it
+    @Column(name = "base_score", nullable = false)
+    private double baseScore;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public CourseAggregate() {}
+
+    public CourseAggregate(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void addActiveEnrollments(long delta) {
+        activeEnrollments = Math.max(0, activeEnrollments + delta);
+    }
+
+    public void addRating(int rating) {
+        ratingSum += rating;
+        ratingCount++;
+    }
+
+    public void addSentiment(double sentiment) {
+        sentimentSum += sentiment;
+        sentimentCount++;
+    }
+
+    public double getAverageRating() {
+        return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
+
+    public double getAverageSentiment() {
+        return sentimentCount == 0 ? 0.0 : sentimentSum / sentimentCount;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public long getActiveEnrollments() {
+        return activeEnrollments;
+    }
+
+    public void setActiveEnrollments(long activeEnrollments) {
+        this.activeEnrollments = activeEnrollments;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public double getSentimentSum() {
+        return sentimentSum;
+    }
+
+    public void setSentimentSum(double sentimentSum) {
+        this.sentimentSum = sentimentSum;
+    }
+
+    public long getSentimentCount() {
+        return sentimentCount;
+    }
+
+    public void setSentimentCount(long sentimentCount) {
+        this.sentimentCount = sentimentCount;
+    }
+
+    public double getBaseScore() {
+        return baseScore;
+    }
+
+    public void setBaseScore(double baseScore) {
+        this.baseScore = baseScore;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
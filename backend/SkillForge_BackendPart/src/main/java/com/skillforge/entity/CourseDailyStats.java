@@ -0,0 +1,75 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-course activity counters. Rows are upserted by
+ * DailyRollupService as attempts and enrollments happen, so a report over
+ * N days reads at most N rows per course instead of the raw tables.
+ */
+@Entity
+@Table(name = "course_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_course_daily_stats_day_course", columnNames = {"stat_date", "course_id"})
+})
+public class CourseDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private long attempts;
+
+    @Column(name = "score_sum", nullable = false)
+    private double scoreSum;
+
+    @Column(name = "score_count", nullable = false)
+    private long scoreCount;
+
+    @Column(nullable = false)
+    private long enrollments;
+
+    @Column(nullable = false)
+    private long unenrollments;
+
+    public CourseDailyStats() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public double getScoreSum() {
+        return scoreSum;
+    }
+
+    public long getScoreCount() {
+        return scoreCount;
+    }
+
+    public long getEnrollments() {
+        return enrollments;
+    }
+
+    public long getUnenrollments() {
+        return unenrollments;
+    }
+}
@@ -26,6 +26,9 @@ public class Feedback {
     @Column(columnDefinition = "JSON")
     private String topics;
 
+    // Keyword sentiment of comments in [-1, 1], scored when the row is written
+    private Double sentiment;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -41,6 +44,8 @@ public class Feedback {
     public void setComments(String comments) { this.comments = comments; }
     public String getTopics() { return topics; }
     public void setTopics(String topics) { this.topics = topics; }
+    public Double getSentiment() { return sentiment; }
+    public void setSentiment(Double sentiment) { this.sentiment = sentiment; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
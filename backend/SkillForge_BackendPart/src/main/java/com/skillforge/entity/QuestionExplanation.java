@@ -0,0 +1,119 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A generated clarification, stored so identical requests are answered
+ * without calling Gemini again. Keyed by question, normalized student
+ * answer and query; questionHash is a fingerprint of the question text,
+ * options and correct answer when it was generated, so a row is stale once
+ * the question changes.
+ */
+@Entity
+@Table(name = "question_explanations", indexes = {
+        @Index(name = "idx_question_explanations_key", columnList = "question_id, answer_hash, query_hash", unique = true),
+        @Index(name = "idx_question_explanations_quiz", columnList = "quiz_id"),
+        @Index(name = "idx_question_explanations_course", columnList = "course_id")
+})
+public class QuestionExplanation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    // Plain ids so rows can be dropped when the quiz or course goes away
+    @Column(name = "quiz_id")
+    private Long quizId;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "answer_hash", nullable = false, length = 64)
+    private String answerHash;
+
+    @Column(name = "query_hash", nullable = false, length = 64)
+    private String queryHash;
+
+    @Column(name = "question_hash", nullable = false, length = 64)
+    private String questionHash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String explanation;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public QuestionExplanation() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Long quizId) {
+        this.quizId = quizId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getAnswerHash() {
+        return answerHash;
+    }
+
+    public void setAnswerHash(String answerHash) {
+        this.answerHash = answerHash;
+    }
+
+    public String getQueryHash() {
+        return queryHash;
+    }
+
+    public void setQueryHash(String queryHash) {
+        this.queryHash = queryHash;
+    }
+
+    public String getQuestionHash() {
+        return questionHash;
+    }
+
+    public void setQuestionHash(String questionHash) {
+        this.questionHash = questionHash;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,123 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Running item statistics for one question, maintained by ItemStatsService.
+ * Only additive counters and sums are stored, so each submission is a single
+ * upsert; difficulty and discrimination are derived from them when read.
+ */
+@Entity
+@Table(name = "question_stats", indexes = {
+        @Index(name = "idx_question_stats_quiz", columnList = "quiz_id")
+})
+public class QuestionStats {
+
+    // Questions are created with at most this many options (see QuizService)
+    public static final int MAX_OPTIONS = 4;
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Long quizId;
+
+    @Column(nullable = false)
+    private long attempts;
+
+    @Column(name = "correct_count", nullable = false)
+    private long correctCount;
+
+    @Column(name = "no_answer_count", nullable = false)
+    private long noAnswerCount;
+
+    // Answers that match none of the options
+    @Column(name = "other_count", nullable = false)
+    private long otherCount;
+
+    @Column(name = "option0_picks", nullable = false)
+    private long option0Picks;
+
+    @Column(name = "option1_picks", nullable = false)
+    private long option1Picks;
+
+    @Column(name = "option2_picks", nullable = false)
+    private long option2Picks;
+
+    @Column(name = "option3_picks", nullable = false)
+    private long option3Picks;
+
+    // Sums of the attempt's total score, for the point-biserial index
+    @Column(name = "score_sum", nullable = false)
+    private double scoreSum;
+
+    @Column(name = "score_sq_sum", nullable = false)
+    private double scoreSqSum;
+
+    @Column(name = "correct_score_sum", nullable = false)
+    private double correctScoreSum;
+
+    public QuestionStats() {}
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getCorrectCount() {
+        return correctCount;
+    }
+
+    public long getNoAnswerCount() {
+        return noAnswerCount;
+    }
+
+    public long getOtherCount() {
+        return otherCount;
+    }
+
+    public long getOptionPicks(int option) {
+        switch (option) {
+            case 0: return option0Picks;
+            case 1: return option1Picks;
+            case 2: return option2Picks;
+            case 3: return option3Picks;
+            default: return 0;
+        }
+    }
+
+    /** Share of attempts that answered correctly (classical difficulty index). */
+    public double getDifficulty() {
+        return attempts == 0 ? 0.0 : (double) correctCount / attempts;
+    }
+
+    /**
+     * Point-biserial correlation between answering this question correctly
+     * and the attempt's total score, in [-1, 1]. Null while it is undefined
+     * (everyone or no one correct, or all scores equal). The total includes
+     * this item, so small quizzes read slightly high.
+     */
+    public Double getDiscrimination() {
+        long wrongCount = attempts - correctCount;
+        if (correctCount == 0 || wrongCount == 0) {
+            return null;
+        }
+        double mean = scoreSum / attempts;
+        double variance = scoreSqSum / attempts - mean * mean;
+        if (variance <= 1e-9) {
+            return null;
+        }
+        double meanCorrect = correctScoreSum / correctCount;
+        double meanWrong = (scoreSum - correctScoreSum) / wrongCount;
+        double p = (double) correctCount / attempts;
+        return (meanCorrect - meanWrong) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+    }
+}
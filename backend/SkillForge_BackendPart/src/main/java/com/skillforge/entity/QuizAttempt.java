@@ -4,11 +4,21 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", indexes = {
+        // Serves "latest attempts of a quiz" without sorting its whole history
+        @Index(name = "idx_quiz_attempts_quiz_attempted_at", columnList = "quiz_id, attempted_at")
+})
 public class QuizAttempt {
 
+    // Ids come from a table generator handing out blocks of ID_ALLOCATION_SIZE, so Hibernate
+    // knows them before the INSERT and can batch attempt inserts (IDENTITY rules that out)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "quiz_attempt_ids")
+    @TableGenerator(name = "quiz_attempt_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "quiz_attempts",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,6 +36,10 @@ public class QuizAttempt {
     @Column(columnDefinition = "TEXT")
     private String feedback;
 
+    // Keyword sentiment of feedback in [-1, 1], scored when the attempt is submitted
+    @Column(name = "feedback_sentiment")
+    private Double feedbackSentiment;
+
     @Column(columnDefinition = "TEXT")
     private String answersJson;
 
@@ -79,6 +93,14 @@ public class QuizAttempt {
         this.feedback = feedback;
     }
 
+    public Double getFeedbackSentiment() {
+        return feedbackSentiment;
+    }
+
+    public void setFeedbackSentiment(Double feedbackSentiment) {
+        this.feedbackSentiment = feedbackSentiment;
+    }
+
     public String getAnswersJson() {
         return answersJson;
     }
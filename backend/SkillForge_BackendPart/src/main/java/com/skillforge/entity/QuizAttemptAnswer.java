@@ -0,0 +1,90 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One answer of a quiz attempt, stored as the index of the chosen option.
+ * The answer text is only kept when it matches none of the question's
+ * options. Replaces the per-attempt answers JSON (QuizAttempt.answersJson),
+ * which is now only read for rows not yet migrated.
+ */
+@Entity
+@Table(name = "quiz_attempt_answers", indexes = {
+        @Index(name = "idx_quiz_attempt_answers_question", columnList = "question_id, chosen_option")
+})
+@IdClass(QuizAttemptAnswer.Key.class)
+public class QuizAttemptAnswer {
+
+    // chosen_option of an answer that is none of the options; answer_text holds it
+    public static final short OTHER = -2;
+
+    @Id
+    @Column(name = "attempt_id")
+    private Long attemptId;
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "chosen_option", nullable = false)
+    private short chosenOption;
+
+    @Column(name = "answer_text", length = 1000)
+    private String answerText;
+
+    public QuizAttemptAnswer() {}
+
+    public QuizAttemptAnswer(Long questionId, short chosenOption, String answerText) {
+        this.questionId = questionId;
+        this.chosenOption = chosenOption;
+        this.answerText = answerText;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+
+    public void setAttemptId(Long attemptId) {
+        this.attemptId = attemptId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public short getChosenOption() {
+        return chosenOption;
+    }
+
+    public String getAnswerText() {
+        return answerText;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long attemptId;
+        private Long questionId;
+
+        public Key() {}
+
+        public Key(Long attemptId, Long questionId) {
+            this.attemptId = attemptId;
+            this.questionId = questionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(attemptId, key.attemptId) && Objects.equals(questionId, key.questionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attemptId, questionId);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -42,6 +43,10 @@ public class User {
     @OneToMany(mappedBy = "instructor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Course> courses;
+
+    // Null for accounts created before this column was added
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
     
     // Constructors
     public User() {}
@@ -53,6 +58,11 @@ public class User {
         this.password = password;
         this.role = role;
     }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
     
     // Getters and Setters
     public Long getId() {
@@ -110,6 +120,10 @@ public class User {
     public void setCourses(List<Course> courses) {
         this.courses = courses;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
     
     // Role enum
     public enum Role {
@@ -0,0 +1,29 @@
+package com.skillforge.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Number of accounts registered per day, maintained by DailyRollupService.
+ */
+@Entity
+@Table(name = "user_daily_stats")
+public class UserDailyStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "new_users", nullable = false)
+    private long newUsers;
+
+    public UserDailyStats() {}
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public long getNewUsers() {
+        return newUsers;
+    }
+}
@@ -0,0 +1,27 @@
+package com.skillforge.event;
+
+/**
+ * Published when a course is created, updated or deleted.
+ */
+public class CourseCatalogChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Long courseId;
+    private final Type type;
+
+    public CourseCatalogChangedEvent(Long courseId, Type type) {
+        this.courseId = courseId;
+        this.type = type;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,30 @@
+package com.skillforge.event;
+
+/**
+ * Published whenever a student's enrollment in a course is created or toggled.
+ */
+public class EnrollmentChangedEvent {
+
+    private final Long courseId;
+    private final Long studentId;
+    private final boolean active;
+
+    public EnrollmentChangedEvent(Long courseId, Long studentId, boolean active) {
+        this.courseId = courseId;
+        this.studentId = studentId;
+        this.active = active;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    // true when the student is now enrolled, false when they just unenrolled
+    public boolean isActive() {
+        return active;
+    }
+}
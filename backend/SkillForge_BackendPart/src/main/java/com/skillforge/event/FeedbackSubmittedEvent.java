@@ -0,0 +1,36 @@
+package com.skillforge.event;
+
+/**
+ * Published after a course feedback row has been saved.
+ */
+public class FeedbackSubmittedEvent {
+
+    private final Long courseId;
+    private final Long userId;
+    private final Integer rating;
+    private final Double sentiment;
+
+    public FeedbackSubmittedEvent(Long courseId, Long userId, Integer rating, Double sentiment) {
+        this.courseId = courseId;
+        this.userId = userId;
+        this.rating = rating;
+        this.sentiment = sentiment;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    // null when the feedback had no comment text
+    public Double getSentiment() {
+        return sentiment;
+    }
+}
@@ -0,0 +1,50 @@
+package com.skillforge.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a graded quiz attempt has been stored.
+ */
+public class QuizAttemptSubmittedEvent {
+
+    private final Long attemptId;
+    private final Long quizId;
+    private final Long courseId;
+    private final Long studentId;
+    private final Double score;
+    private final LocalDateTime attemptedAt;
+
+    public QuizAttemptSubmittedEvent(Long attemptId, Long quizId, Long courseId, Long studentId,
+            Double score, LocalDateTime attemptedAt) {
+        this.attemptId = attemptId;
+        this.quizId = quizId;
+        this.courseId = courseId;
+        this.studentId = studentId;
+        this.score = score;
+        this.attemptedAt = attemptedAt;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public LocalDateTime getAttemptedAt() {
+        return attemptedAt;
+    }
+}
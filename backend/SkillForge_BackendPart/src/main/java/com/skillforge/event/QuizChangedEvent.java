@@ -0,0 +1,33 @@
+package com.skillforge.event;
+
+/**
+ * Published when a quiz or its questions are created, updated or deleted.
+ */
+public class QuizChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Long quizId;
+    private final Long courseId;
+    private final Type type;
+
+    public QuizChangedEvent(Long quizId, Long courseId, Type type) {
+        this.quizId = quizId;
+        this.courseId = courseId;
+        this.type = type;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
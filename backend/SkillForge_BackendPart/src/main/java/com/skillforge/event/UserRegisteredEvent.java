@@ -0,0 +1,25 @@
+package com.skillforge.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a new account is stored, by self-registration or by an admin.
+ */
+public class UserRegisteredEvent {
+
+    private final Long userId;
+    private final LocalDateTime createdAt;
+
+    public UserRegisteredEvent(Long userId, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
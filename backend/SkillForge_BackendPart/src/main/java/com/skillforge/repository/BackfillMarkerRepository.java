@@ -0,0 +1,9 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.BackfillMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BackfillMarkerRepository extends JpaRepository<BackfillMarker, String> {
+}
@@ -0,0 +1,28 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.CourseAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseAggregateRepository extends JpaRepository<CourseAggregate, Long> {
+
+    List<CourseAggregate> findAllByOrderByBaseScoreDesc(Pageable pageable);
+
+    // Highest average rating first; more ratings break ties
+    @Query("SELECT a.courseId FROM CourseAggregate a WHERE a.ratingCount > 0 "
+            + "ORDER BY a.ratingSum * 1.0 / a.ratingCount DESC, a.ratingCount DESC")
+    List<Long> findTopRatedCourseIds(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM CourseAggregate a WHERE a.courseId = :courseId")
+    Optional<CourseAggregate> findByIdForUpdate(@Param("courseId") Long courseId);
+}
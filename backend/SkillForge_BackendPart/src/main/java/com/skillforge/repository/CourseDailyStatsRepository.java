@@ -0,0 +1,72 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.CourseDailyStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CourseDailyStatsRepository extends JpaRepository<CourseDailyStats, Long> {
+
+    // Adds the deltas to the (day, course) row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO course_daily_stats "
+            + "(stat_date, course_id, attempts, score_sum, score_count, enrollments, unenrollments) "
+            + "VALUES (:day, :courseId, :attempts, :scoreSum, :scoreCount, :enrollments, :unenrollments) "
+            + "ON DUPLICATE KEY UPDATE attempts = attempts + :attempts, score_sum = score_sum + :scoreSum, "
+            + "score_count = score_count + :scoreCount, enrollments = enrollments + :enrollments, "
+            + "unenrollments = unenrollments + :unenrollments", nativeQuery = true)
+    void increment(@Param("day") LocalDate day, @Param("courseId") Long courseId,
+                   @Param("attempts") long attempts, @Param("scoreSum") double scoreSum,
+                   @Param("scoreCount") long scoreCount, @Param("enrollments") long enrollments,
+                   @Param("unenrollments") long unenrollments);
+
+    // [day, attempts, scoreSum, scoreCount, enrollments, unenrollments] per day, oldest first
+    @Query("SELECT s.statDate, SUM(s.attempts), SUM(s.scoreSum), SUM(s.scoreCount), SUM(s.enrollments), "
+            + "SUM(s.unenrollments) FROM CourseDailyStats s WHERE s.statDate >= :from "
+            + "GROUP BY s.statDate ORDER BY s.statDate")
+    List<Object[]> sumByDaySince(@Param("from") LocalDate from);
+
+    // Courses with at least one attempt or new enrollment since the given day
+    @Query("SELECT COUNT(DISTINCT s.courseId) FROM CourseDailyStats s WHERE s.statDate >= :from "
+            + "AND (s.attempts > 0 OR s.enrollments > 0)")
+    long countActiveCoursesSince(@Param("from") LocalDate from);
+
+    // [courseId, enrollments] for the courses with the most new enrollments since the given day
+    @Query("SELECT s.courseId, SUM(s.enrollments) FROM CourseDailyStats s WHERE s.statDate >= :from "
+            + "GROUP BY s.courseId HAVING SUM(s.enrollments) > 0 ORDER BY SUM(s.enrollments) DESC")
+    List<Object[]> topCoursesByEnrollmentsSince(@Param("from") LocalDate from, Pageable pageable);
+
+    // Backfill from the raw tables; run on an empty table
+    @Modifying
+    @Query(value = "INSERT INTO course_daily_stats "
+            + "(stat_date, course_id, attempts, score_sum, score_count, enrollments, unenrollments) "
+            + "SELECT DATE(a.attempted_at), q.course_id, COUNT(*), COALESCE(SUM(a.score), 0), COUNT(a.score), 0, 0 "
+            + "FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id WHERE a.attempted_at IS NOT NULL "
+            + "GROUP BY DATE(a.attempted_at), q.course_id", nativeQuery = true)
+    int backfillAttempts();
+
+    @Modifying
+    @Query(value = "INSERT INTO course_daily_stats "
+            + "(stat_date, course_id, attempts, score_sum, score_count, enrollments, unenrollments) "
+            + "SELECT DATE(e.enrolled_at), e.course_id, 0, 0, 0, COUNT(*), 0 "
+            + "FROM course_enrollments e WHERE e.enrolled_at IS NOT NULL AND e.course_id IS NOT NULL "
+            + "GROUP BY DATE(e.enrolled_at), e.course_id "
+            + "ON DUPLICATE KEY UPDATE enrollments = enrollments + VALUES(enrollments)", nativeQuery = true)
+    int backfillEnrollments();
+
+    @Modifying
+    @Query(value = "INSERT INTO course_daily_stats "
+            + "(stat_date, course_id, attempts, score_sum, score_count, enrollments, unenrollments) "
+            + "SELECT DATE(e.unenrolled_at), e.course_id, 0, 0, 0, 0, COUNT(*) "
+            + "FROM course_enrollments e WHERE e.unenrolled_at IS NOT NULL AND e.course_id IS NOT NULL "
+            + "GROUP BY DATE(e.unenrolled_at), e.course_id "
+            + "ON DUPLICATE KEY UPDATE unenrollments = unenrollments + VALUES(unenrollments)", nativeQuery = true)
+    int backfillUnenrollments();
+}
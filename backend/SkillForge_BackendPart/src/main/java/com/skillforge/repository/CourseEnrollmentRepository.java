@@ -2,17 +2,46 @@ package com.skillforge.repository;
 
 import com.skillforge.entity.CourseEnrollment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollment, Long> {
     List<CourseEnrollment> findByStudentId(Long studentId);
+
+    @Query("SELECT e FROM CourseEnrollment e JOIN FETCH e.course c LEFT JOIN FETCH c.instructor WHERE e.student.id = :studentId")
+    List<CourseEnrollment> findByStudentIdWithCourse(@Param("studentId") Long studentId);
     boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
     CourseEnrollment findFirstByStudentIdAndCourseId(Long studentId, Long courseId);
     List<CourseEnrollment> findByCourseId(Long courseId);
     long countByCourseId(Long courseId);
     long countByStudentId(Long studentId);
 	void deleteAllByCourseId(Long id);
+
+    // [courseId, activeEnrollmentCount] rows, used to (re)build course aggregates
+    @Query("SELECT e.course.id, COUNT(e) FROM CourseEnrollment e WHERE e.unenrolledAt IS NULL GROUP BY e.course.id")
+    List<Object[]> countActiveGroupedByCourse();
+
+    // [studentId, courseId] rows for active enrollments, streamed for the similarity index build
+    @Query("SELECT e.student.id, e.course.id FROM CourseEnrollment e WHERE e.unenrolledAt IS NULL AND e.student IS NOT NULL AND e.course IS NOT NULL")
+    Stream<Object[]> streamActiveStudentCoursePairs();
+
+    // [courseId, enrollmentCount, engagementMinutes] per course; minutes run to now for active enrollments
+    @Query(value = "SELECT e.course_id, COUNT(*), "
+            + "COALESCE(SUM(GREATEST(0, TIMESTAMPDIFF(MINUTE, e.enrolled_at, COALESCE(e.unenrolled_at, NOW())))), 0) "
+            + "FROM course_enrollments e WHERE e.student_id IS NOT NULL AND e.course_id IN (:courseIds) "
+            + "GROUP BY e.course_id", nativeQuery = true)
+    List<Object[]> sumEngagementGroupedByCourse(@Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT COUNT(DISTINCT e.student.id) FROM CourseEnrollment e WHERE e.course.id IN :courseIds")
+    long countDistinctStudentsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    // [courseId, enrollmentCount] for the given courses; courses without enrollments have no row
+    @Query("SELECT e.course.id, COUNT(e) FROM CourseEnrollment e WHERE e.course.id IN :courseIds GROUP BY e.course.id")
+    List<Object[]> countGroupedByCourse(@Param("courseIds") Collection<Long> courseIds);
 }
@@ -21,4 +21,7 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     @Query("SELECT c FROM Course c LEFT JOIN FETCH c.quizzes q LEFT JOIN FETCH c.enrollments e LEFT JOIN FETCH c.feedbacks f LEFT JOIN FETCH c.suggestedQuizzes s WHERE c.id = :id")
     Optional<Course> findByIdWithDetails(@Param("id") Long id);
 
+    @Query("SELECT c.id FROM Course c")
+    List<Long> findAllIds();
+
 }
@@ -1,7 +1,11 @@
 package com.skillforge.repository;
 
 import com.skillforge.entity.Feedback;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +15,17 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     List<Feedback> findByCourseId(Long courseId);
 
 	void deleteAllByCourseId(Long id);
+
+    // [courseId, ratingSum, ratingCount, sentimentSum, sentimentCount] rows, used to (re)build course aggregates
+    @Query("SELECT f.course.id, SUM(f.rating), COUNT(f.rating), SUM(f.sentiment), COUNT(f.sentiment) FROM Feedback f GROUP BY f.course.id")
+    List<Object[]> sumRatingsAndSentimentGroupedByCourse();
+
+    // [id, comments, courseId] rows whose sentiment has not been scored yet
+    @Query("SELECT f.id, f.comments, f.course.id FROM Feedback f WHERE f.id > :afterId AND f.sentiment IS NULL AND f.comments IS NOT NULL AND TRIM(f.comments) <> '' ORDER BY f.id")
+    List<Object[]> findUnscoredComments(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Only scores a row once; returns 0 if it already had a sentiment
+    @Modifying
+    @Query("UPDATE Feedback f SET f.sentiment = :sentiment WHERE f.id = :id AND f.sentiment IS NULL")
+    int updateSentiment(@Param("id") Long id, @Param("sentiment") Double sentiment);
 }
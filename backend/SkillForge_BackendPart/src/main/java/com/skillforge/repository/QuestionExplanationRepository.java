@@ -0,0 +1,25 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.QuestionExplanation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuestionExplanationRepository extends JpaRepository<QuestionExplanation, Long> {
+
+    Optional<QuestionExplanation> findByQuestionIdAndAnswerHashAndQueryHash(Long questionId, String answerHash,
+                                                                            String queryHash);
+
+    @Modifying
+    @Query("DELETE FROM QuestionExplanation e WHERE e.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") Long quizId);
+
+    @Modifying
+    @Query("DELETE FROM QuestionExplanation e WHERE e.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+}
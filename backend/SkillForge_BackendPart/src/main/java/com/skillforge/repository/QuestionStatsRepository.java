@@ -0,0 +1,13 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.QuestionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuestionStatsRepository extends JpaRepository<QuestionStats, Long> {
+
+    List<QuestionStats> findByQuizId(Long quizId);
+}
@@ -0,0 +1,28 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.QuizAttemptAnswer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface QuizAttemptAnswerRepository extends JpaRepository<QuizAttemptAnswer, QuizAttemptAnswer.Key> {
+
+    List<QuizAttemptAnswer> findByAttemptIdOrderByQuestionId(Long attemptId);
+
+    // [attemptId, quizId, score, questionId, chosenOption, answerText] for attempts made before the
+    // given time, one row per answer, grouped by attempt; streamed row by row
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT a.id, a.quiz.id, a.score, ans.questionId, ans.chosenOption, ans.answerText "
+            + "FROM QuizAttemptAnswer ans JOIN QuizAttempt a ON a.id = ans.attemptId "
+            + "WHERE a.attemptedAt < :before ORDER BY a.id")
+    Stream<Object[]> streamAnswersBefore(@Param("before") LocalDateTime before);
+}
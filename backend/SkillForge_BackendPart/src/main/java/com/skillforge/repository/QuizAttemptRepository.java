@@ -1,14 +1,23 @@
 package com.skillforge.repository;
 
+import com.skillforge.dto.CourseAttemptStats;
+import com.skillforge.dto.RecentAttemptView;
 import com.skillforge.entity.QuizAttempt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
@@ -20,6 +29,8 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
 
     List<QuizAttempt> findByQuizId(Long quizId);
 
+    boolean existsByQuizIdAndStudentId(Long quizId, Long studentId);
+
     @org.springframework.data.jpa.repository.Query("SELECT a FROM QuizAttempt a WHERE a.quiz.course.id = :courseId")
     List<QuizAttempt> findByQuizCourseId(@org.springframework.data.repository.query.Param("courseId") Long courseId);
 
@@ -33,4 +44,72 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
 
     @Query("SELECT COUNT(qa) FROM QuizAttempt qa WHERE qa.quiz.course.id = :courseId")
     Long countByCourseId(@Param("courseId") Long courseId);
+
+    // One stats row for the course; counts are 0 and averages null when it has no attempts
+    @Query("SELECT MAX(a.quiz.course.id) AS courseId, COUNT(a) AS attemptCount, COUNT(a.score) AS scoredCount, "
+            + "AVG(a.score) AS scoredAverage, "
+            + "COALESCE(SUM(CASE WHEN a.score >= 0 THEN 1 ELSE 0 END), 0) AS validCount, "
+            + "AVG(CASE WHEN a.score >= 0 THEN a.score END) AS validAverage, "
+            + "MAX(CASE WHEN a.score >= 0 THEN a.score END) AS highestScore, "
+            + "MIN(CASE WHEN a.score >= 0 THEN a.score END) AS lowestScore "
+            + "FROM QuizAttempt a WHERE a.quiz.course.id = :courseId")
+    CourseAttemptStats findStatsByCourseId(@Param("courseId") Long courseId);
+
+    // Same stats grouped per course; courses without attempts have no row
+    @Query("SELECT a.quiz.course.id AS courseId, COUNT(a) AS attemptCount, COUNT(a.score) AS scoredCount, "
+            + "AVG(a.score) AS scoredAverage, "
+            + "COALESCE(SUM(CASE WHEN a.score >= 0 THEN 1 ELSE 0 END), 0) AS validCount, "
+            + "AVG(CASE WHEN a.score >= 0 THEN a.score END) AS validAverage, "
+            + "MAX(CASE WHEN a.score >= 0 THEN a.score END) AS highestScore, "
+            + "MIN(CASE WHEN a.score >= 0 THEN a.score END) AS lowestScore "
+            + "FROM QuizAttempt a WHERE a.quiz.course.id IN :courseIds GROUP BY a.quiz.course.id")
+    List<CourseAttemptStats> findStatsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    // Students with at least one attempt since the given time; an index range scan on (attempted_at, student_id)
+    @Query("SELECT COUNT(DISTINCT a.student.id) FROM QuizAttempt a WHERE a.attemptedAt >= :from")
+    long countDistinctStudentsSince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT DISTINCT a.quiz.id FROM QuizAttempt a")
+    List<Long> findDistinctQuizIds();
+
+    // [quizId, score, answersJson] for attempts made before the given time, grouped by quiz; streamed row by row
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT a.quiz.id, a.score, a.answersJson FROM QuizAttempt a "
+            + "WHERE a.attemptedAt < :before AND a.answersJson IS NOT NULL ORDER BY a.quiz.id")
+    Stream<Object[]> streamAnswersBefore(@Param("before") LocalDateTime before);
+
+    // [studentId, courseId] rows for every student who attempted a quiz in a course
+    @Query("SELECT DISTINCT a.student.id, a.quiz.course.id FROM QuizAttempt a WHERE a.student IS NOT NULL")
+    Stream<Object[]> streamStudentCoursePairs();
+
+    // [id, quizId, answersJson] rows whose answers are still stored as JSON
+    @Query("SELECT a.id, a.quiz.id, a.answersJson FROM QuizAttempt a WHERE a.id > :afterId AND a.answersJson IS NOT NULL ORDER BY a.id")
+    List<Object[]> findUnmigratedAnswers(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE QuizAttempt a SET a.answersJson = NULL WHERE a.id IN :ids")
+    void clearAnswersJson(@Param("ids") Collection<Long> ids);
+
+    // [id, feedback] rows whose feedback sentiment has not been scored yet
+    @Query("SELECT a.id, a.feedback FROM QuizAttempt a WHERE a.id > :afterId AND a.feedbackSentiment IS NULL AND a.feedback IS NOT NULL AND TRIM(a.feedback) <> '' ORDER BY a.id")
+    List<Object[]> findUnscoredFeedback(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE QuizAttempt a SET a.feedbackSentiment = :sentiment WHERE a.id = :id")
+    void updateFeedbackSentiment(@Param("id") Long id, @Param("sentiment") Double sentiment);
+
+    // Latest attempts per course, newest first. The lateral join reads at most perCourse rows per
+    // quiz from the (quiz_id, attempted_at) index, so the cost does not depend on attempt history;
+    // the window then keeps the newest perCourse of those candidates for each course.
+    @Query(value = "SELECT r.id AS id, r.quiz_id AS quizId, r.title AS quizTitle, r.course_id AS courseId, "
+            + "r.score AS score, r.attempted_at AS attemptedAt FROM ("
+            + "SELECT la.id, q.id AS quiz_id, q.title, q.course_id, la.score, la.attempted_at, "
+            + "ROW_NUMBER() OVER (PARTITION BY q.course_id ORDER BY la.attempted_at DESC, la.id DESC) AS rn "
+            + "FROM quizzes q JOIN LATERAL ("
+            + "SELECT a.id, a.score, a.attempted_at FROM quiz_attempts a WHERE a.quiz_id = q.id "
+            + "ORDER BY a.attempted_at DESC, a.id DESC LIMIT :perCourse) la ON TRUE "
+            + "WHERE q.course_id IN (:courseIds)) r "
+            + "WHERE r.rn <= :perCourse ORDER BY r.attempted_at DESC, r.id DESC", nativeQuery = true)
+    List<RecentAttemptView> findLatestByCourseIds(@Param("courseIds") Collection<Long> courseIds,
+                                                  @Param("perCourse") int perCourse);
 }
@@ -0,0 +1,35 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.QuizGenerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuizGenerationJobRepository extends JpaRepository<QuizGenerationJob, Long> {
+
+    List<QuizGenerationJob> findByStatusInOrderByIdAsc(Collection<QuizGenerationJob.Status> statuses);
+
+    // Finished jobs are never picked up again
+    @Modifying
+    @Query("UPDATE QuizGenerationJob j SET j.status = com.skillforge.entity.QuizGenerationJob.Status.RUNNING, "
+            + "j.startedAt = :startedAt, j.attempts = j.attempts + 1 WHERE j.id = :id "
+            + "AND j.status IN (com.skillforge.entity.QuizGenerationJob.Status.QUEUED, "
+            + "com.skillforge.entity.QuizGenerationJob.Status.RUNNING)")
+    int markRunning(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying
+    @Query("UPDATE QuizGenerationJob j SET j.status = :status, j.resultQuizId = :resultQuizId, "
+            + "j.resultJson = :resultJson, j.error = :error, j.finishedAt = :finishedAt WHERE j.id = :id "
+            + "AND j.status IN (com.skillforge.entity.QuizGenerationJob.Status.QUEUED, "
+            + "com.skillforge.entity.QuizGenerationJob.Status.RUNNING)")
+    int markFinished(@Param("id") Long id, @Param("status") QuizGenerationJob.Status status,
+                     @Param("resultQuizId") Long resultQuizId, @Param("resultJson") String resultJson,
+                     @Param("error") String error, @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -2,12 +2,22 @@ package com.skillforge.repository;
 
 import com.skillforge.entity.Quiz;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
     List<Quiz> findByInstructorId(Long instructorId);
     List<Quiz> findByCourseId(Long courseId);
+
+    @Query("SELECT q.id FROM Quiz q WHERE q.course.id = :courseId ORDER BY q.id")
+    List<Long> findIdsByCourseId(@Param("courseId") Long courseId);
 	void deleteByCourseId(Long id);
+
+    // Quiz with its questions and course in one query, for compiling the answer key
+    @Query("SELECT DISTINCT q FROM Quiz q LEFT JOIN FETCH q.questions LEFT JOIN FETCH q.course WHERE q.id = :id")
+    Optional<Quiz> findWithQuestionsById(@Param("id") Long id);
 }
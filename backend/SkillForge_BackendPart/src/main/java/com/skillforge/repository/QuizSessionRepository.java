@@ -0,0 +1,31 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.QuizSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuizSessionRepository extends JpaRepository<QuizSession, Long> {
+
+    List<QuizSession> findByStatus(QuizSession.Status status);
+
+    Optional<QuizSession> findFirstByStudentIdAndQuizIdAndStatusOrderByIdDesc(Long studentId, Long quizId,
+                                                                             QuizSession.Status status);
+
+    // Only an open session is closed, so a late flush or a second finisher cannot reopen or overwrite it
+    @Modifying
+    @Query("UPDATE QuizSession s SET s.status = com.skillforge.entity.QuizSession.Status.SUBMITTED, "
+            + "s.answersJson = :answersJson, s.finishedAt = :finishedAt, s.autoSubmitted = :autoSubmitted, "
+            + "s.attemptId = :attemptId WHERE s.id = :id "
+            + "AND s.status = com.skillforge.entity.QuizSession.Status.IN_PROGRESS")
+    int markSubmitted(@Param("id") Long id, @Param("answersJson") String answersJson,
+                      @Param("finishedAt") LocalDateTime finishedAt, @Param("autoSubmitted") boolean autoSubmitted,
+                      @Param("attemptId") Long attemptId);
+}
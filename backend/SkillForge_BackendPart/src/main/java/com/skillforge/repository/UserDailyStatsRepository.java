@@ -0,0 +1,30 @@
+package com.skillforge.repository;
+
+import com.skillforge.entity.UserDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyStatsRepository extends JpaRepository<UserDailyStats, LocalDate> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_stats (stat_date, new_users) VALUES (:day, 1) "
+            + "ON DUPLICATE KEY UPDATE new_users = new_users + 1", nativeQuery = true)
+    void incrementNewUsers(@Param("day") LocalDate day);
+
+    @Query("SELECT s FROM UserDailyStats s WHERE s.statDate >= :from ORDER BY s.statDate")
+    List<UserDailyStats> findSince(@Param("from") LocalDate from);
+
+    // Backfill from users.created_at; accounts created before that column existed have no date
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_stats (stat_date, new_users) "
+            + "SELECT DATE(u.created_at), COUNT(*) FROM users u WHERE u.created_at IS NOT NULL "
+            + "GROUP BY DATE(u.created_at)", nativeQuery = true)
+    int backfill();
+}
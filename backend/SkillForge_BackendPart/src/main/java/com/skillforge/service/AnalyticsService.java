@@ -2,14 +2,13 @@ package com.skillforge.service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.skillforge.dto.CourseAttemptStats;
 import com.skillforge.entity.Course;
 import com.skillforge.entity.QuizAttempt;
 import com.skillforge.repository.CourseRepository;
@@ -30,39 +29,26 @@ public class AnalyticsService {
     @Autowired
     private com.skillforge.repository.UserRepository userRepository;
 
-    private Map<String, Object> getQuizStatistics(Long courseId) {
+    // Stats row may be null for a course with no attempts in a grouped query
+    private Map<String, Object> toQuizStatistics(CourseAttemptStats row) {
         Map<String, Object> stats = new HashMap<>();
-        try {
-            List<QuizAttempt> attempts = attemptRepository.findByQuizCourseId(courseId);
-            
-            int totalAttempts = 0;
-            double totalScore = 0.0;
-            double highestScore = 0.0;
-            double lowestScore = 100.0;
-            
-            for (QuizAttempt attempt : attempts) {
-                if (attempt != null && attempt.getScore() != null && attempt.getScore() >= 0) {
-                    totalAttempts++;
-                    double score = attempt.getScore();
-                    totalScore += score;
-                    highestScore = Math.max(highestScore, score);
-                    lowestScore = Math.min(lowestScore, score);
-                }
-            }
-            
-            stats.put("totalAttempts", totalAttempts);
-            stats.put("averageScore", totalAttempts > 0 ? Math.round((totalScore / totalAttempts) * 100.0) / 100.0 : 0.0);
-            stats.put("highestScore", totalAttempts > 0 ? highestScore : 0.0);
-            stats.put("lowestScore", totalAttempts > 0 ? lowestScore : 0.0);
-            
-        } catch (Exception e) {
-            stats.put("error", "Failed to fetch quiz statistics: " + e.getMessage());
-        }
+        long totalAttempts = row != null && row.getValidCount() != null ? row.getValidCount() : 0L;
+        boolean any = totalAttempts > 0;
+
+        stats.put("totalAttempts", (int) totalAttempts);
+        stats.put("averageScore", any ? Math.round(row.getValidAverage() * 100.0) / 100.0 : 0.0);
+        stats.put("highestScore", any ? row.getHighestScore() : 0.0);
+        stats.put("lowestScore", any ? row.getLowestScore() : 0.0);
         return stats;
     }
 
     // Returns detailed analytics for a student: course progress, quiz performance, and time spent
     public List<Map<String, Object>> studentAnalytics(Long studentId) {
+        return studentAnalytics(studentId, null);
+    }
+
+    // Same report, reading enrollments and attempts from a shared dashboard loader when given one
+    public List<Map<String, Object>> studentAnalytics(Long studentId, StudentDataLoader.StudentData data) {
         if (studentId == null) {
             throw new IllegalArgumentException("Student ID cannot be null");
         }
@@ -71,12 +57,12 @@ public class AnalyticsService {
 
         try {
             // Get all enrollments for the student
-            List<com.skillforge.entity.CourseEnrollment> enrollments
-                    = enrollmentRepository.findByStudentId(studentId);
+            List<com.skillforge.entity.CourseEnrollment> enrollments = data != null
+                    ? data.enrollments() : enrollmentRepository.findByStudentId(studentId);
 
             // Get all quiz attempts
-            List<QuizAttempt> allAttempts
-                    = attemptRepository.findByStudentIdWithQuizCourse(studentId);
+            List<QuizAttempt> allAttempts = data != null
+                    ? data.attempts() : attemptRepository.findByStudentIdWithQuizCourse(studentId);
 
             // Group quiz attempts by course
             Map<Long, List<QuizAttempt>> attemptsByCourse = new HashMap<>();
@@ -152,22 +138,13 @@ public class AnalyticsService {
             result.put("totalEnrolled", enrolledCount);
 
             // Quiz attempts and performance
-            List<QuizAttempt> attempts = attemptRepository.findByQuizCourseId(courseId);
-            int attemptCount = 0;
-            double totalScore = 0;
-
-            for (QuizAttempt attempt : attempts) {
-                if (attempt.getScore() != null) {
-                    attemptCount++;
-                    totalScore += attempt.getScore();
-                }
-            }
-
-            double averageScore = attemptCount > 0 ? totalScore / attemptCount : 0;
+            CourseAttemptStats attempts = attemptRepository.findStatsByCourseId(courseId);
+            long attemptCount = attempts.getScoredCount() != null ? attempts.getScoredCount() : 0L;
+            double averageScore = attemptCount > 0 ? attempts.getScoredAverage() : 0;
 
-            result.put("quizAttempts", attemptCount);
+            result.put("quizAttempts", (int) attemptCount);
             result.put("averageScore", Math.round(averageScore * 100.0) / 100.0);
-            result.put("hasQuizzes", !attempts.isEmpty());
+            result.put("hasQuizzes", attempts.getAttemptCount() != null && attempts.getAttemptCount() > 0);
 
         } catch (Exception e) {
             result.put("error", "Failed to fetch course analytics: " + e.getMessage());
@@ -198,9 +175,27 @@ public class AnalyticsService {
             if (courses.isEmpty()) {
                 result.put("message", "No courses found for this instructor");
                 return result;
-            }            // Track unique students and total engagement time
-            Set<Long> uniqueStudents = new HashSet<>();
-            Map<Long, Integer> courseTimeSpent = new HashMap<>(); // course ID -> minutes
+            }
+
+            // Everything below is a fixed number of grouped queries, however many courses there are
+            List<Long> courseIds = courses.stream().map(Course::getId).toList();
+
+            Map<Long, CourseAttemptStats> attemptStats = new HashMap<>();
+            for (CourseAttemptStats row : attemptRepository.findStatsByCourseIds(courseIds)) {
+                attemptStats.put(row.getCourseId(), row);
+            }
+
+            // [courseId, enrollments, minutes]; durations are computed and summed by the database
+            Map<Long, long[]> engagement = new HashMap<>();
+            for (Object[] row : enrollmentRepository.sumEngagementGroupedByCourse(courseIds)) {
+                engagement.put(((Number) row[0]).longValue(),
+                        new long[] { ((Number) row[1]).longValue(), ((Number) row[2]).longValue() });
+            }
+
+            // Students enrolled in several of the instructor's courses are counted once, by the database
+            int totalStudents = (int) enrollmentRepository.countDistinctStudentsByCourseIds(courseIds);
+
+            int totalTimeSpent = 0;
             List<Map<String, Object>> courseAnalytics = new ArrayList<>();
 
             // Process each course
@@ -209,51 +204,19 @@ public class AnalyticsService {
                 courseStats.put("courseId", course.getId());
                 courseStats.put("title", course.getTitle());
 
-                // Get all enrollments for this course
-                List<com.skillforge.entity.CourseEnrollment> enrollments
-                        = enrollmentRepository.findByCourseId(course.getId());
-
-                int courseEnrollments = 0;
-                int totalMinutes = 0;
-
-                // Process enrollments
-                for (com.skillforge.entity.CourseEnrollment enrollment : enrollments) {
-                    if (enrollment.getStudent() != null) {
-                        uniqueStudents.add(enrollment.getStudent().getId());
-                        courseEnrollments++;
-
-                        // Calculate engagement time
-                        if (enrollment.getEnrolledAt() != null) {
-                            try {
-                                java.time.LocalDateTime endTime
-                                        = enrollment.getUnenrolledAt() != null
-                                        ? enrollment.getUnenrolledAt()
-                                        : java.time.LocalDateTime.now();
-
-                                int minutes = (int) java.time.Duration.between(
-                                        enrollment.getEnrolledAt(),
-                                        endTime
-                                ).toMinutes();
-
-                                totalMinutes += Math.max(0, minutes); // Avoid negative durations
-                            } catch (Exception e) {
-                                // Skip invalid dates
-                                System.err.println("Error calculating duration for enrollment "
-                                        + enrollment.getId() + ": " + e.getMessage());
-                            }
-                        }
-                    }
-                }
+                long[] courseEngagement = engagement.getOrDefault(course.getId(), new long[2]);
+                int courseEnrollments = (int) courseEngagement[0];
+                int totalMinutes = (int) courseEngagement[1];
 
                 // Get quiz statistics and performance metrics
-                Map<String, Object> quizStats = getQuizStatistics(course.getId());
+                Map<String, Object> quizStats = toQuizStatistics(attemptStats.get(course.getId()));
 
                 // Populate course statistics
                 courseStats.put("enrollments", courseEnrollments);
                 courseStats.put("timeSpentMinutes", totalMinutes);
                 courseStats.putAll(quizStats);
 
-                courseTimeSpent.put(course.getId(), totalMinutes);
+                totalTimeSpent += totalMinutes;
                 courseAnalytics.add(courseStats);
             }
 
@@ -264,10 +227,6 @@ public class AnalyticsService {
                             (Integer) a.get("enrollments")
                     ));
 
-            // Calculate instructor-level statistics
-            int totalStudents = uniqueStudents.size();
-            int totalTimeSpent = courseTimeSpent.values().stream().mapToInt(Integer::intValue).sum();
-
             // Populate result map
             result.put("totalStudents", totalStudents);
             result.put("totalCourses", courses.size());
@@ -0,0 +1,222 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.dto.WrongAnswerDTO;
+import com.skillforge.entity.Question;
+import com.skillforge.entity.Quiz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable grading data for one quiz, compiled once from its questions
+ * (plus the quiz's time limit, which decides how it may be submitted):
+ * ids, trimmed correct answers and already-parsed options in parallel
+ * arrays, in question order. Grading compares answers in place
+ * (case-insensitive, ignoring surrounding whitespace) without creating
+ * trimmed copies, and touches neither the database nor JSON.
+ */
+public final class AnswerKey {
+
+    /** Chosen option index of a question left blank. */
+    public static final int NO_ANSWER = -1;
+    /** Chosen option index of an answer that is none of the question's options. */
+    public static final int OTHER_ANSWER = -2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> OPTIONS = new TypeReference<>() { };
+
+    private final Long quizId;
+    private final Long courseId;
+    private final Integer timeLimitMinutes;
+    private final long[] questionIds;
+    private final String[] prompts;
+    private final String[] correctAnswers;      // as stored, returned to the student
+    private final String[] normalizedAnswers;   // trimmed, null when the question has no answer
+    private final List<String>[] options;
+    private final String[][] normalizedOptions;
+
+    @SuppressWarnings("unchecked")
+    AnswerKey(Quiz quiz) {
+        List<Question> questions = quiz.getQuestions();
+        int n = questions.size();
+        this.quizId = quiz.getId();
+        this.courseId = quiz.getCourse() != null ? quiz.getCourse().getId() : null;
+        this.timeLimitMinutes = quiz.getTimeLimitMinutes();
+        this.questionIds = new long[n];
+        this.prompts = new String[n];
+        this.correctAnswers = new String[n];
+        this.normalizedAnswers = new String[n];
+        this.options = new List[n];
+        this.normalizedOptions = new String[n][];
+        for (int i = 0; i < n; i++) {
+            Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            prompts[i] = question.getPrompt();
+            correctAnswers[i] = question.getCorrectAnswer();
+            normalizedAnswers[i] = question.getCorrectAnswer() != null ? question.getCorrectAnswer().trim() : null;
+            options[i] = parseOptions(question.getOptionsJson());
+            normalizedOptions[i] = new String[options[i].size()];
+            for (int o = 0; o < options[i].size(); o++) {
+                String option = options[i].get(o);
+                normalizedOptions[i][o] = option != null ? option.trim() : null;
+            }
+        }
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Integer getTimeLimitMinutes() {
+        return timeLimitMinutes;
+    }
+
+    /** Whether the quiz has a time limit, so it may only be submitted through a quiz session. */
+    public boolean isTimed() {
+        return timeLimitMinutes != null && timeLimitMinutes > 0;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public long questionId(int index) {
+        return questionIds[index];
+    }
+
+    /** Position of the question in this key, or -1 if the quiz has no such question. */
+    public int indexOf(long questionId) {
+        for (int i = 0; i < questionIds.length; i++) {
+            if (questionIds[i] == questionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String prompt(int index) {
+        return prompts[index];
+    }
+
+    public String correctAnswer(int index) {
+        return correctAnswers[index];
+    }
+
+    public List<String> options(int index) {
+        return options[index];
+    }
+
+    /** Result of grading one submission against this key. */
+    public static final class Grade {
+
+        private final int correct;
+        private final int total;
+        private final List<WrongAnswerDTO> wrongAnswers;
+        // Per question, in key order
+        private final boolean[] answeredCorrectly;
+        private final int[] chosenOptions;
+
+        Grade(int correct, int total, List<WrongAnswerDTO> wrongAnswers,
+              boolean[] answeredCorrectly, int[] chosenOptions) {
+            this.correct = correct;
+            this.total = total;
+            this.wrongAnswers = wrongAnswers;
+            this.answeredCorrectly = answeredCorrectly;
+            this.chosenOptions = chosenOptions;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public double getScore() {
+            return total > 0 ? (double) correct / total * 100 : 0;
+        }
+
+        public List<WrongAnswerDTO> getWrongAnswers() {
+            return wrongAnswers;
+        }
+
+        public boolean isCorrect(int index) {
+            return answeredCorrectly[index];
+        }
+
+        /** Index of the option picked for question {@code index}, or NO_ANSWER / OTHER_ANSWER. */
+        public int chosenOption(int index) {
+            return chosenOptions[index];
+        }
+    }
+
+    public Grade grade(Map<Long, String> answers) {
+        int n = questionIds.length;
+        int correct = 0;
+        List<WrongAnswerDTO> wrong = new ArrayList<>();
+        boolean[] answeredCorrectly = new boolean[n];
+        int[] chosen = new int[n];
+        for (int i = 0; i < n; i++) {
+            String answer = answers != null ? answers.get(questionIds[i]) : null;
+            chosen[i] = chosenOption(i, answer);
+            if (matches(normalizedAnswers[i], answer)) {
+                correct++;
+                answeredCorrectly[i] = true;
+            } else {
+                wrong.add(new WrongAnswerDTO(questionIds[i], prompts[i], answer, correctAnswers[i], options[i]));
+            }
+        }
+        return new Grade(correct, n, wrong, answeredCorrectly, chosen);
+    }
+
+    private int chosenOption(int question, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return NO_ANSWER;
+        }
+        String[] candidates = normalizedOptions[question];
+        for (int o = 0; o < candidates.length; o++) {
+            if (matches(candidates[o], answer)) {
+                return o;
+            }
+        }
+        return OTHER_ANSWER;
+    }
+
+    // Same result as answer.trim().equalsIgnoreCase(expected), without the trimmed copy
+    static boolean matches(String expected, String answer) {
+        if (expected == null || answer == null) {
+            return false;
+        }
+        int start = 0;
+        int end = answer.length();
+        while (start < end && answer.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && answer.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        return length == expected.length() && expected.regionMatches(true, 0, answer, start, length);
+    }
+
+    private static List<String> parseOptions(String optionsJson) {
+        if (optionsJson == null || optionsJson.isBlank()) {
+            return Collections.emptyList();
+        }
+        try {
+            List<String> parsed = MAPPER.readValue(optionsJson, OPTIONS);
+            return parsed != null ? Collections.unmodifiableList(parsed) : Collections.emptyList();
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.skillforge.event.CourseCatalogChangedEvent;
+import com.skillforge.event.QuizChangedEvent;
+import com.skillforge.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Compiled answer keys by quiz id, loaded with one query (quiz and questions
+ * together) the first time a quiz is graded. Entries are dropped when the
+ * quiz changes or its course is deleted; the TTL covers edits made outside
+ * this application.
+ */
+@Component
+public class AnswerKeyCache {
+
+    private final QuizRepository quizRepository;
+    private final LoadingCache<Long, AnswerKey> cache;
+
+    public AnswerKeyCache(QuizRepository quizRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${quiz.answer-key-cache.max-size:2000}") long maxSize,
+                          @Value("${quiz.answer-key-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.quizRepository = quizRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "answer-keys");
+    }
+
+    /** Answer key of the quiz; throws if the quiz does not exist. */
+    public AnswerKey get(Long quizId) {
+        if (quizId == null) {
+            throw new RuntimeException("Quiz not found");
+        }
+        return cache.get(quizId);
+    }
+
+    public void invalidate(Long quizId) {
+        if (quizId != null) {
+            cache.invalidate(quizId);
+        }
+    }
+
+    private AnswerKey load(Long quizId) {
+        return new AnswerKey(quizRepository.findWithQuestionsById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found")));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        invalidate(event.getQuizId());
+    }
+
+    // Deleting a course deletes its quizzes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        if (event.getType() == CourseCatalogChangedEvent.Type.DELETED && event.getCourseId() != null) {
+            cache.asMap().values().removeIf(key -> event.getCourseId().equals(key.getCourseId()));
+        }
+    }
+}
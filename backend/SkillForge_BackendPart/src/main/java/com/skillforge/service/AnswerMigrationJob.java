@@ -0,0 +1,112 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.QuizAttemptAnswer;
+import com.skillforge.repository.QuizAttemptRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves answers written as QuizAttempt.answersJson into quiz_attempt_answers,
+ * a batch of attempts per transaction, clearing the JSON as each attempt is
+ * converted. Attempts whose JSON cannot be read are skipped and keep it. Runs shortly after startup and then periodically; once every
+ * attempt is converted each run is a single empty query.
+ */
+@Component
+public class AnswerMigrationJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private AttemptAnswerService attemptAnswers;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private AnswerKey keyOrNull(Long quizId) {
+        try {
+            return answerKeyCache.get(quizId);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Nothing would be lost by clearing the JSON: no answers, or only blank ones
+    private static boolean allBlank(Map<Long, String> answers) {
+        for (String answer : answers.values()) {
+            if (answer != null && !answer.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Scheduled(initialDelayString = "${answers.migration.initial-delay-ms:20000}",
+            fixedDelayString = "${answers.migration.interval-ms:3600000}")
+    public void migrate() {
+        try {
+            int total = 0;
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> batch = quizAttemptRepository.findUnmigratedAnswers(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Integer migrated = transactionTemplate.execute(status -> {
+                    List<Long> converted = new ArrayList<>(batch.size());
+                    for (Object[] row : batch) {
+                        Long attemptId = (Long) row[0];
+                        Map<Long, String> answers = AttemptAnswerService.tryParseLegacy((String) row[2]);
+                        if (answers == null) {
+                            // Left as JSON so the answers are never lost; reported on every run until fixed
+                            System.err.println("Skipping answer migration of quiz attempt " + attemptId
+                                    + ": answers JSON could not be read");
+                            continue;
+                        }
+                        AnswerKey key = keyOrNull((Long) row[1]);
+                        AnswerKey.Grade grade = key != null ? key.grade(answers) : null;
+                        List<QuizAttemptAnswer> rows = attemptAnswers.toRows(key, grade, answers);
+                        if (rows.isEmpty() && !allBlank(answers)) {
+                            System.err.println("Skipping answer migration of quiz attempt " + attemptId
+                                    + ": its answers produced no rows");
+                            continue;
+                        }
+                        for (QuizAttemptAnswer answer : rows) {
+                            answer.setAttemptId(attemptId);
+                            entityManager.persist(answer);
+                        }
+                        converted.add(attemptId);
+                    }
+                    if (!converted.isEmpty()) {
+                        quizAttemptRepository.clearAnswersJson(converted);
+                    }
+                    return converted.size();
+                });
+                afterId = (Long) batch.get(batch.size() - 1)[0];
+                total += migrated != null ? migrated : 0;
+            }
+            if (total > 0) {
+                System.out.println("Migrated answers of " + total + " quiz attempts to quiz_attempt_answers");
+            }
+        } catch (Exception e) {
+            System.err.println("Answer migration failed: " + e.getMessage());
+        }
+    }
+}
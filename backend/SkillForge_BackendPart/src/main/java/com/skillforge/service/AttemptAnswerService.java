@@ -0,0 +1,163 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.QuizAttemptAnswer;
+import com.skillforge.repository.QuizAttemptAnswerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts between submitted answers (question id -> answer text) and the
+ * compact quiz_attempt_answers rows (question id -> option index), using
+ * the quiz's answer key for the option texts.
+ */
+@Service
+public class AttemptAnswerService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> LEGACY_ANSWERS = new TypeReference<>() { };
+    private static final int MAX_TEXT_LENGTH = 1000;
+
+    @Autowired
+    private QuizAttemptAnswerRepository answerRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    /**
+     * Rows for a graded submission (attempt id not yet set). Blank answers
+     * get no row; answers that are none of the options keep their text.
+     * Without a key (quiz gone) every answer is kept as text.
+     */
+    public List<QuizAttemptAnswer> toRows(AnswerKey key, AnswerKey.Grade grade, Map<Long, String> answers) {
+        List<QuizAttemptAnswer> rows = new ArrayList<>();
+        for (int i = 0; key != null && i < key.size(); i++) {
+            int chosen = grade.chosenOption(i);
+            if (chosen == AnswerKey.NO_ANSWER) {
+                continue;
+            }
+            String text = chosen == AnswerKey.OTHER_ANSWER ? truncate(answers.get(key.questionId(i))) : null;
+            rows.add(new QuizAttemptAnswer(key.questionId(i), (short) chosen, text));
+        }
+        // Answers to questions no longer in the quiz are kept as text
+        if (answers != null) {
+            for (Map.Entry<Long, String> entry : answers.entrySet()) {
+                if (entry.getKey() != null && (key == null || key.indexOf(entry.getKey()) < 0)
+                        && entry.getValue() != null && !entry.getValue().isBlank()) {
+                    rows.add(new QuizAttemptAnswer(entry.getKey(), QuizAttemptAnswer.OTHER, truncate(entry.getValue())));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Answer text per question id for an attempt, in question id order. */
+    public Map<Long, String> answersOf(QuizAttempt attempt) {
+        List<QuizAttemptAnswer> rows = answerRepository.findByAttemptIdOrderByQuestionId(attempt.getId());
+        if (rows.isEmpty() && attempt.getAnswersJson() != null) {
+            return parseLegacy(attempt.getAnswersJson());
+        }
+        AnswerKey key = keyOrNull(attempt.getQuiz() != null ? attempt.getQuiz().getId() : null);
+        Map<Long, String> answers = new LinkedHashMap<>();
+        for (QuizAttemptAnswer row : rows) {
+            answers.put(row.getQuestionId(), textOf(key, row.getQuestionId(), row.getChosenOption(), row.getAnswerText()));
+        }
+        return answers;
+    }
+
+    /** [{questionId, chosenOption, answer}] for an attempt; chosenOption is -2 for free text. */
+    public List<Map<String, Object>> describe(QuizAttempt attempt) {
+        List<QuizAttemptAnswer> rows = answerRepository.findByAttemptIdOrderByQuestionId(attempt.getId());
+        AnswerKey key = keyOrNull(attempt.getQuiz() != null ? attempt.getQuiz().getId() : null);
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (rows.isEmpty() && attempt.getAnswersJson() != null) {
+            // Not migrated yet
+            for (Map.Entry<Long, String> entry : parseLegacy(attempt.getAnswersJson()).entrySet()) {
+                int index = key != null ? key.indexOf(entry.getKey()) : -1;
+                int chosen = index >= 0 ? optionIndex(key, index, entry.getValue()) : AnswerKey.OTHER_ANSWER;
+                result.add(describe(entry.getKey(), chosen, entry.getValue()));
+            }
+            return result;
+        }
+        for (QuizAttemptAnswer row : rows) {
+            result.add(describe(row.getQuestionId(), row.getChosenOption(),
+                    textOf(key, row.getQuestionId(), row.getChosenOption(), row.getAnswerText())));
+        }
+        return result;
+    }
+
+    // Answer text rebuilt from the option index
+    static String textOf(AnswerKey key, Long questionId, int chosenOption, String storedText) {
+        if (chosenOption < 0 || key == null) {
+            return storedText;
+        }
+        int index = key.indexOf(questionId);
+        if (index < 0 || chosenOption >= key.options(index).size()) {
+            return storedText;
+        }
+        return key.options(index).get(chosenOption);
+    }
+
+    // Unreadable JSON reads as no answers; use tryParseLegacy where that must be told apart
+    static Map<Long, String> parseLegacy(String json) {
+        Map<Long, String> answers = tryParseLegacy(json);
+        return answers != null ? answers : new HashMap<>();
+    }
+
+    /** Answers stored as answersJson, or null if the JSON or one of its question ids is malformed. */
+    static Map<Long, String> tryParseLegacy(String json) {
+        try {
+            Map<String, String> raw = MAPPER.readValue(json, LEGACY_ANSWERS);
+            Map<Long, String> answers = new LinkedHashMap<>();
+            if (raw != null) {
+                for (Map.Entry<String, String> entry : raw.entrySet()) {
+                    answers.put(Long.valueOf(entry.getKey().trim()), entry.getValue());
+                }
+            }
+            return answers;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int optionIndex(AnswerKey key, int index, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return AnswerKey.NO_ANSWER;
+        }
+        List<String> options = key.options(index);
+        for (int o = 0; o < options.size(); o++) {
+            if (options.get(o) != null && AnswerKey.matches(options.get(o).trim(), answer)) {
+                return o;
+            }
+        }
+        return AnswerKey.OTHER_ANSWER;
+    }
+
+    private static Map<String, Object> describe(Long questionId, int chosenOption, String answer) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("questionId", questionId);
+        item.put("chosenOption", chosenOption);
+        item.put("answer", answer);
+        return item;
+    }
+
+    private AnswerKey keyOrNull(Long quizId) {
+        try {
+            return quizId != null ? answerKeyCache.get(quizId) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+}
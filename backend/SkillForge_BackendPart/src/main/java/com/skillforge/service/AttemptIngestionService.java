@@ -0,0 +1,277 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.Quiz;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.QuizAttemptAnswer;
+import com.skillforge.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for quiz attempts. Request threads hand their attempt and
+ * its answer rows to a bounded queue and wait; a single writer thread takes
+ * whatever has queued up (up to the batch size) and inserts it in one
+ * transaction as JDBC batches, together with the batch's question
+ * statistics and daily course counters, then releases the waiting requests. A submission is acknowledged
+ * only after its row is committed, but under load many submissions share
+ * one round-trip and one commit.
+ *
+ * When the queue is full the submission is refused straight away instead of
+ * waiting behind the backlog. A submission still queued after the wait
+ * timeout is withdrawn and refused; one the writer has already taken is
+ * waited for, so a refused submission is never written behind the
+ * client's back (and a retry cannot duplicate it).
+ */
+@Service
+public class AttemptIngestionService implements SmartInitializingSingleton {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemStatsService itemStatsService;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long waitTimeoutMs;
+
+    private final Timer flushTimer;
+    private final Timer waitTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private static final class Pending {
+        final QuizAttempt attempt;
+        final List<QuizAttemptAnswer> answers;
+        final AnswerKey key;
+        final AnswerKey.Grade grade;
+        final CompletableFuture<QuizAttempt> done = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+
+        Pending(QuizAttempt attempt, List<QuizAttemptAnswer> answers, AnswerKey key, AnswerKey.Grade grade) {
+            this.attempt = attempt;
+            this.answers = answers != null ? answers : List.of();
+            this.key = key;
+            this.grade = grade;
+        }
+    }
+
+    public AttemptIngestionService(MeterRegistry meterRegistry,
+                                   @Value("${attempts.ingest.queue-capacity:2000}") int queueCapacity,
+                                   @Value("${attempts.ingest.batch-size:50}") int batchSize,
+                                   @Value("${attempts.ingest.linger-ms:2}") long lingerMs,
+                                   @Value("${attempts.ingest.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        Gauge.builder("attempts.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder("attempts.ingest.flush").register(meterRegistry);
+        this.waitTimer = Timer.builder("attempts.ingest.wait").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("attempts.ingest.batch.size").register(meterRegistry);
+        this.rejected = Counter.builder("attempts.ingest.rejected").register(meterRegistry);
+        this.failed = Counter.builder("attempts.ingest.failed").register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "attempt-ingest-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Persists the attempt and its answer rows as part of the next batch and
+     * returns the attempt with its id once committed. Quiz and student only
+     * need their ids set; the answer rows get the attempt id here. The grade
+     * is added to the question statistics in the same transaction.
+     */
+    public QuizAttempt submit(QuizAttempt attempt, List<QuizAttemptAnswer> answers,
+                              AnswerKey key, AnswerKey.Grade grade) {
+        Pending pending = new Pending(attempt, answers, key, grade);
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new RuntimeException("Too many submissions right now, please try again");
+        }
+        try {
+            try {
+                return pending.done.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Not yet taken by the writer: withdraw it, so a refusal means it is never written
+                if (queue.remove(pending)) {
+                    rejected.increment();
+                    throw new RuntimeException("Too many submissions right now, please try again");
+                }
+                // Already in a batch; its commit (or failure) is the only honest answer
+                return pending.done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving attempt", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save attempt: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                // Give concurrent submissions a moment to join a small batch
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                for (Pending p : batch) {
+                    p.done.completeExceptionally(t);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (Exception batchFailure) {
+            // One bad row fails the whole batch; retry one by one so only that submission fails
+            for (Pending p : batch) {
+                p.attempt.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(p)));
+                } catch (Exception e) {
+                    failed.increment();
+                    p.done.completeExceptionally(e);
+                }
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+
+        long now = System.nanoTime();
+        for (Pending p : batch) {
+            if (!p.done.isDone()) {
+                waitTimer.record(now - p.enqueuedAt, TimeUnit.NANOSECONDS);
+                p.done.complete(p.attempt);
+            }
+        }
+    }
+
+    // Attempts, answer rows and their summed question stats and daily counters, in the caller's transaction
+    private void write(List<Pending> batch) {
+        ItemStatsService.Tally stats = new ItemStatsService.Tally();
+        DailyRollupService.AttemptTally daily = new DailyRollupService.AttemptTally();
+        for (Pending p : batch) {
+            persist(p);
+            if (p.key != null && p.grade != null) {
+                stats.add(p.key, p.grade, p.attempt.getScore() != null ? p.attempt.getScore() : 0.0);
+            }
+            daily.add(p.attempt.getAttemptedAt(), p.key != null ? p.key.getCourseId() : null, p.attempt.getScore());
+        }
+        itemStatsService.record(stats);
+        dailyRollupService.record(daily);
+    }
+
+    // The attempt id is assigned on persist (table generator), before any INSERT is sent
+    private void persist(Pending p) {
+        entityManager.persist(attached(p.attempt));
+        for (QuizAttemptAnswer answer : p.answers) {
+            answer.setAttemptId(p.attempt.getId());
+            entityManager.persist(answer);
+        }
+    }
+
+    // Associations are rebound by id to this thread's persistence context
+    private QuizAttempt attached(QuizAttempt attempt) {
+        if (attempt.getQuiz() != null) {
+            attempt.setQuiz(entityManager.getReference(Quiz.class, attempt.getQuiz().getId()));
+        }
+        if (attempt.getStudent() != null) {
+            attempt.setStudent(entityManager.getReference(User.class, attempt.getStudent().getId()));
+        }
+        return attempt;
+    }
+
+    /**
+     * Moves the id generator past ids already used. Rows inserted before the
+     * switch from IDENTITY came from AUTO_INCREMENT, and the generator's
+     * first block ends at the stored value, hence the extra block.
+     *
+     * Runs once all beans exist but before the web server starts, so no
+     * attempt can take an id (and cache a block) from an unaligned row.
+     * Startup fails rather than risk colliding ids.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            jdbcTemplate.update("INSERT IGNORE INTO id_generators (name, next_val) VALUES ('quiz_attempts', 1)");
+            jdbcTemplate.update("UPDATE id_generators SET next_val = GREATEST(next_val, "
+                    + "(SELECT COALESCE(MAX(id), 0) FROM quiz_attempts) + ? + 1) WHERE name = 'quiz_attempts'",
+                    QuizAttempt.ID_ALLOCATION_SIZE);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to align quiz attempt id generator: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let the writer drain what is already queued before the context closes
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
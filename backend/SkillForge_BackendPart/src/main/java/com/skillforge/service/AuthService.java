@@ -1,17 +1,19 @@
 package com.skillforge.service;
 
-import com.skillforge.config.JwtService;
+import com.skillforge.config.AuthAuditLog;
+import com.skillforge.config.AuthEvent;
 import com.skillforge.dto.AuthRequest;
 import com.skillforge.dto.AuthResponse;
 import com.skillforge.dto.RegisterRequest;
 import com.skillforge.entity.User;
+import com.skillforge.event.UserRegisteredEvent;
 import com.skillforge.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
@@ -23,10 +25,22 @@ public class AuthService implements UserDetailsService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
     
     @Autowired
-    private JwtService jwtService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private AuthAuditLog auditLog;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -40,6 +54,11 @@ public class AuthService implements UserDetailsService {
         );
     }
     
+    // Principal for an already-issued token; served from the cache, without the password hash
+    public UserDetails loadPrincipal(String email) {
+        return principalCache.get(email, this::loadUserByUsername);
+    }
+    
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
@@ -49,41 +68,72 @@ public class AuthService implements UserDetailsService {
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashing.encode(request.getPassword()));
         user.setRole(request.getRole() != null ? request.getRole() : User.Role.STUDENT);
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId(), savedUser.getCreatedAt()));
         
-        String token = jwtService.generateToken(loadUserByUsername(savedUser.getEmail()));
+        RefreshTokenService.Session session = refreshTokenService.start(savedUser);
         
-        return new AuthResponse(token, savedUser);
+        return new AuthResponse(session.getAccessToken(), session.getRefreshToken(), savedUser);
     }
     
     public AuthResponse login(AuthRequest request) {
+        return login(request, null);
+    }
+
+    /**
+     * Checks the credentials on the hashing pool after taking a token from
+     * the email and client buckets; the tokens are returned on success, so
+     * only failures count against the limits.
+     */
+    public AuthResponse login(AuthRequest request, String clientAddress) {
+        loginThrottle.acquire(request.getEmail(), clientAddress);
         try {
-            // First find the user to get their details
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + request.getEmail()));
-            
-            // Load user details which includes authorities
-            UserDetails userDetails = loadUserByUsername(request.getEmail());
+            User user = userRepository.findByEmail(request.getEmail()).orElse(null);
             
-            // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), userDetails.getPassword())) {
+            // Unknown emails still pay for one hash, so they cannot be told apart by timing
+            if (!passwordHashing.matches(request.getPassword(), user != null ? user.getPassword() : null)) {
+                if (user == null) {
+                    throw new UsernameNotFoundException("User not found with email: " + request.getEmail());
+                }
                 throw new RuntimeException("Invalid password");
             }
+            loginThrottle.succeeded(request.getEmail(), clientAddress);
+            
+            // Bring the stored hash in line with the configured work factor
+            String rehashed = passwordHashing.rehashIfNeeded(request.getPassword(), user.getPassword());
+            if (rehashed != null) {
+                user.setPassword(rehashed);
+                user = userRepository.save(user);
+            }
             
-            // Generate token with user details
-            String token = jwtService.generateToken(userDetails);
-            System.out.println("Login successful for user: " + request.getEmail());
+            // Short-lived access token with user id and role as claims, plus a refresh token
+            RefreshTokenService.Session session = refreshTokenService.start(user);
+            auditLog.record(AuthEvent.Type.LOGIN_SUCCESS, request.getEmail(), null);
             
-            return new AuthResponse(token, user);
-        } catch (UsernameNotFoundException e) {
-            System.err.println("Login failed - User not found: " + request.getEmail());
+            return new AuthResponse(session.getAccessToken(), session.getRefreshToken(), user);
+        } catch (UsernameNotFoundException | LoginThrottledException e) {
+            auditLog.record(AuthEvent.Type.LOGIN_FAILURE, request.getEmail(),
+                    e instanceof LoginThrottledException ? "throttled" : "unknown user");
             throw e;
         } catch (Exception e) {
-            System.err.println("Login failed for user " + request.getEmail() + ": " + e.getMessage());
+            auditLog.record(AuthEvent.Type.LOGIN_FAILURE, request.getEmail(), e.getMessage());
             throw new RuntimeException("Authentication failed", e);
         }
     }
+
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Session session = refreshTokenService.rotate(refreshToken);
+        if (session == null) {
+            auditLog.record(AuthEvent.Type.TOKEN_REJECTED, null, "refresh token invalid or reused");
+            throw new RuntimeException("Invalid refresh token");
+        }
+        return new AuthResponse(session.getAccessToken(), session.getRefreshToken(), session.getUser());
+    }
+    
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
 }
@@ -0,0 +1,71 @@
+package com.skillforge.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold}
+ * failures in a row calls are refused for {@code openMillis}; then a single
+ * probe call is let through, and its outcome closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openUntil;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    // clock in epoch millis; tests pass a fake one
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /** Whether a call may go ahead; a true result in HALF_OPEN claims the probe. */
+    public boolean tryAcquire() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return true;
+        }
+        if (clock.getAsLong() < openUntil) {
+            return false;
+        }
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil = clock.getAsLong() + openMillis;
+        }
+        probeInFlight.set(false);
+    }
+
+    /** Ends a call that says nothing about the remote side (e.g. interrupted). */
+    public void release() {
+        probeInFlight.set(false);
+    }
+
+    public State getState() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return State.CLOSED;
+        }
+        return clock.getAsLong() < openUntil ? State.OPEN : State.HALF_OPEN;
+    }
+}
@@ -0,0 +1,183 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.BackfillMarker;
+import com.skillforge.entity.CourseAggregate;
+import com.skillforge.event.CourseCatalogChangedEvent;
+import com.skillforge.event.EnrollmentChangedEvent;
+import com.skillforge.event.FeedbackSubmittedEvent;
+import com.skillforge.repository.BackfillMarkerRepository;
+import com.skillforge.repository.CourseAggregateRepository;
+import com.skillforge.repository.CourseEnrollmentRepository;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.FeedbackRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the course_aggregates snapshot (active enrollments, rating and
+ * feedback sentiment per course). Enrollment and feedback events update a
+ * single row; a full rebuild only happens at startup, before the server
+ * takes requests, so no incremental update can interleave with it.
+ */
+@Service
+public class CourseAggregateService implements SmartInitializingSingleton {
+
+    private static final String BACKFILL = "course_aggregates";
+
+    @Autowired
+    private CourseAggregateRepository aggregateRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private BackfillMarkerRepository backfillMarkerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public List<CourseAggregate> topByBaseScore(int limit) {
+        return aggregateRepository.findAllByOrderByBaseScoreDesc(PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    /** Course with the highest average rating, or null if no course has been rated. */
+    public Long highestRatedCourseId() {
+        List<Long> top = aggregateRepository.findTopRatedCourseIds(PageRequest.of(0, 1));
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    public List<CourseAggregate> findByCourseIds(Collection<Long> courseIds) {
+        return aggregateRepository.findAllById(courseIds);
+    }
+
+    @EventListener
+    @Transactional
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        update(event.getCourseId(), agg -> agg.addActiveEnrollments(event.isActive() ? 1 : -1));
+    }
+
+    @EventListener
+    @Transactional
+    public void onFeedbackSubmitted(FeedbackSubmittedEvent event) {
+        update(event.getCourseId(), agg -> {
+            if (event.getRating() != null) {
+                agg.addRating(event.getRating());
+            }
+            if (event.getSentiment() != null) {
+                agg.addSentiment(event.getSentiment());
+            }
+        });
+    }
+
+    @EventListener
+    @Transactional
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        if (event.getType() == CourseCatalogChangedEvent.Type.CREATED) {
+            update(event.getCourseId(), agg -> { });
+        } else if (event.getType() == CourseCatalogChangedEvent.Type.DELETED
+                && aggregateRepository.existsById(event.getCourseId())) {
+            aggregateRepository.deleteById(event.getCourseId());
+        }
+    }
+
+    /** Adds sentiments scored after the fact (see SentimentBackfillJob) to a course's row. */
+    @Transactional
+    public void addSentiments(Long courseId, double sentimentSum, long sentimentCount) {
+        update(courseId, agg -> {
+            agg.setSentimentSum(agg.getSentimentSum() + sentimentSum);
+            agg.setSentimentCount(agg.getSentimentCount() + sentimentCount);
+        });
+    }
+
+    /**
+     * Startup backfill. Runs once all beans exist but before the web server
+     * starts, so the rebuild's reads and its delete-and-insert cannot lose
+     * an increment committed in between. Rebuilds once behind a marker
+     * (rows from earlier releases may have been built while serving), and
+     * again whenever the snapshot is out of step with the catalog; the
+     * rebuild replaces rows rather than adding to them, so repeating it is
+     * harmless.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                boolean marked = backfillMarkerRepository.existsById(BACKFILL);
+                if (marked && aggregateRepository.count() == courseRepository.count()) {
+                    return;
+                }
+                rebuildAll();
+                if (!marked) {
+                    backfillMarkerRepository.save(new BackfillMarker(BACKFILL, LocalDateTime.now()));
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to rebuild course aggregates: " + e.getMessage());
+        }
+    }
+
+    // Only safe while no incremental update can run: see afterSingletonsInstantiated
+    private void rebuildAll() {
+        Map<Long, CourseAggregate> aggregates = new HashMap<>();
+        for (Long courseId : courseRepository.findAllIds()) {
+            aggregates.put(courseId, new CourseAggregate(courseId));
+        }
+
+        for (Object[] row : enrollmentRepository.countActiveGroupedByCourse()) {
+            CourseAggregate agg = aggregates.get((Long) row[0]);
+            if (agg != null) {
+                agg.setActiveEnrollments(((Number) row[1]).longValue());
+            }
+        }
+
+        for (Object[] row : feedbackRepository.sumRatingsAndSentimentGroupedByCourse()) {
+            CourseAggregate agg = aggregates.get((Long) row[0]);
+            if (agg != null) {
+                agg.setRatingSum(row[1] != null ? ((Number) row[1]).longValue() : 0L);
+                agg.setRatingCount(((Number) row[2]).longValue());
+                agg.setSentimentSum(row[3] != null ? ((Number) row[3]).doubleValue() : 0.0);
+                agg.setSentimentCount(((Number) row[4]).longValue());
+            }
+        }
+
+        List<CourseAggregate> rows = new ArrayList<>(aggregates.values());
+        rows.forEach(this::refreshBaseScore);
+        aggregateRepository.deleteAllInBatch();
+        aggregateRepository.saveAll(rows);
+        System.out.println("Rebuilt course aggregates for " + rows.size() + " courses");
+    }
+
+    private void update(Long courseId, Consumer<CourseAggregate> change) {
+        if (courseId == null) {
+            return;
+        }
+        CourseAggregate agg = aggregateRepository.findByIdForUpdate(courseId)
+                .orElseGet(() -> new CourseAggregate(courseId));
+        change.accept(agg);
+        refreshBaseScore(agg);
+        aggregateRepository.save(agg);
+    }
+
+    private void refreshBaseScore(CourseAggregate agg) {
+        agg.setBaseScore(RecommendationService.catalogScore(agg));
+    }
+}
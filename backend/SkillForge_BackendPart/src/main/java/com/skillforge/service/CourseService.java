@@ -3,6 +3,7 @@ package com.skillforge.service;
 import com.skillforge.dto.CourseDTO;
 import com.skillforge.entity.Course;
 import com.skillforge.entity.User;
+import com.skillforge.event.CourseCatalogChangedEvent;
 import com.skillforge.repository.CourseEnrollmentRepository;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.FeedbackRepository;
@@ -13,6 +14,7 @@ import com.skillforge.repository.UserRepository;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -47,6 +49,9 @@ public class CourseService {
     @Autowired
     private FeedbackRepository feedbackRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     public List<CourseDTO> getAllCourses() {
@@ -88,6 +93,7 @@ public class CourseService {
         course.setInstructor(instructor);
         
         Course savedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseCatalogChangedEvent(savedCourse.getId(), CourseCatalogChangedEvent.Type.CREATED));
         return convertToDTO(savedCourse);
     }
     
@@ -125,6 +131,7 @@ public class CourseService {
         }
         
         Course updatedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseCatalogChangedEvent(updatedCourse.getId(), CourseCatalogChangedEvent.Type.UPDATED));
         return convertToDTO(updatedCourse);
     }
 
@@ -153,6 +160,7 @@ public class CourseService {
             
             // Explicitly flush to ensure all deletes are processed
             courseRepository.flush();
+            eventPublisher.publishEvent(new CourseCatalogChangedEvent(id, CourseCatalogChangedEvent.Type.DELETED));
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete course: " + e.getMessage());
         }
@@ -0,0 +1,333 @@
+package com.skillforge.service;
+
+import com.skillforge.repository.CourseEnrollmentRepository;
+import com.skillforge.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Item-to-item collaborative filtering over "students who took X also took Y".
+ *
+ * The index is rebuilt in the background from active enrollments and quiz
+ * attempts. For every course only the top-K most similar courses (cosine
+ * similarity of their student sets) are kept, in primitive arrays, so a
+ * lookup for a student is a merge of a few short neighbour lists.
+ */
+@Component
+public class CourseSimilarityIndex {
+
+    @Autowired
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${recommendation.similarity.top-k:20}")
+    private int topK;
+
+    // Students with more courses than this add little signal and cost O(n^2) pairs
+    @Value("${recommendation.similarity.max-courses-per-student:200}")
+    private int maxCoursesPerStudent;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Sums the similarity of every course neighbouring one of the seed courses.
+     * Seeds and excluded courses are never returned. Result is ordered by
+     * descending score and holds at most {@code limit} entries.
+     */
+    public Map<Long, Double> neighbourScores(Collection<Long> seedCourseIds, Set<Long> excluded, int limit) {
+        Snapshot current = snapshot;
+        Map<Long, Double> merged = new HashMap<>();
+        for (Long seed : seedCourseIds) {
+            int idx = current.indexOf(seed);
+            if (idx < 0) {
+                continue;
+            }
+            int[] neighbours = current.neighbours[idx];
+            float[] weights = current.weights[idx];
+            for (int n = 0; n < neighbours.length; n++) {
+                long courseId = current.courseIds[neighbours[n]];
+                if (!seedCourseIds.contains(courseId) && !excluded.contains(courseId)) {
+                    merged.merge(courseId, (double) weights[n], Double::sum);
+                }
+            }
+        }
+
+        Map<Long, Double> ranked = new LinkedHashMap<>();
+        merged.entrySet().stream()
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                .limit(limit)
+                .forEach(e -> ranked.put(e.getKey(), e.getValue()));
+        return ranked;
+    }
+
+    public int size() {
+        return snapshot.courseIds.length;
+    }
+
+    @Scheduled(initialDelayString = "${recommendation.similarity.initial-delay-ms:30000}",
+            fixedDelayString = "${recommendation.similarity.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            PairBuffer pairs = new PairBuffer();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = enrollmentRepository.streamActiveStudentCoursePairs()) {
+                    rows.forEach(pairs::add);
+                }
+                try (Stream<Object[]> rows = quizAttemptRepository.streamStudentCoursePairs()) {
+                    rows.forEach(pairs::add);
+                }
+            });
+            snapshot = build(pairs);
+            System.out.println("Course similarity index rebuilt: " + snapshot.courseIds.length + " courses, "
+                    + pairs.size + " pairs in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Failed to rebuild course similarity index: " + e.getMessage());
+        }
+    }
+
+    private Snapshot build(PairBuffer pairs) {
+        // Dense course index: sorted ids so lookups are a binary search on a long[]
+        long[] courseIds = Arrays.copyOf(pairs.courses, pairs.size);
+        Arrays.sort(courseIds);
+        courseIds = distinct(courseIds);
+        int courseCount = courseIds.length;
+        if (courseCount == 0) {
+            return Snapshot.EMPTY;
+        }
+
+        // Dense student index
+        Map<Long, Integer> studentIndex = new HashMap<>();
+        int[] pairStudent = new int[pairs.size];
+        int[] pairCourse = new int[pairs.size];
+        for (int i = 0; i < pairs.size; i++) {
+            pairStudent[i] = studentIndex.computeIfAbsent(pairs.students[i], k -> studentIndex.size());
+            pairCourse[i] = Arrays.binarySearch(courseIds, pairs.courses[i]);
+        }
+        int studentCount = studentIndex.size();
+
+        int[][] coursesByStudent = group(pairStudent, pairCourse, studentCount);
+        for (int s = 0; s < studentCount; s++) {
+            if (coursesByStudent[s].length > maxCoursesPerStudent) {
+                coursesByStudent[s] = new int[0];
+            }
+        }
+        int[][] studentsByCourse = invert(coursesByStudent, courseCount);
+
+        int[][] neighbours = new int[courseCount][];
+        float[][] weights = new float[courseCount][];
+        int[] coCounts = new int[courseCount];
+        int[] touched = new int[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            int touchedCount = 0;
+            for (int s : studentsByCourse[c]) {
+                for (int other : coursesByStudent[s]) {
+                    if (other != c && coCounts[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+
+            TopK top = new TopK(Math.min(topK, touchedCount));
+            double degree = studentsByCourse[c].length;
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                double similarity = coCounts[other] / Math.sqrt(degree * studentsByCourse[other].length);
+                top.offer(other, (float) similarity);
+                coCounts[other] = 0;
+            }
+            neighbours[c] = top.indices();
+            weights[c] = top.weights();
+        }
+        return new Snapshot(courseIds, neighbours, weights);
+    }
+
+    // Groups (row, column) pairs into sorted, de-duplicated rows
+    private static int[][] group(int[] rows, int[] cols, int rowCount) {
+        int[] sizes = new int[rowCount];
+        for (int r : rows) {
+            sizes[r]++;
+        }
+        int[][] grouped = new int[rowCount][];
+        for (int r = 0; r < rowCount; r++) {
+            grouped[r] = new int[sizes[r]];
+        }
+        int[] fill = new int[rowCount];
+        for (int i = 0; i < rows.length; i++) {
+            grouped[rows[i]][fill[rows[i]]++] = cols[i];
+        }
+        for (int r = 0; r < rowCount; r++) {
+            Arrays.sort(grouped[r]);
+            grouped[r] = distinct(grouped[r]);
+        }
+        return grouped;
+    }
+
+    private static int[][] invert(int[][] rows, int columnCount) {
+        int[] sizes = new int[columnCount];
+        for (int[] row : rows) {
+            for (int c : row) {
+                sizes[c]++;
+            }
+        }
+        int[][] inverted = new int[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            inverted[c] = new int[sizes[c]];
+        }
+        int[] fill = new int[columnCount];
+        for (int r = 0; r < rows.length; r++) {
+            for (int c : rows[r]) {
+                inverted[c][fill[c]++] = r;
+            }
+        }
+        return inverted;
+    }
+
+    private static int[] distinct(int[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    /** Immutable index published with a single volatile write. */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[0][], new float[0][]);
+
+        final long[] courseIds;
+        final int[][] neighbours;
+        final float[][] weights;
+
+        Snapshot(long[] courseIds, int[][] neighbours, float[][] weights) {
+            this.courseIds = courseIds;
+            this.neighbours = neighbours;
+            this.weights = weights;
+        }
+
+        int indexOf(Long courseId) {
+            return courseId == null ? -1 : Arrays.binarySearch(courseIds, courseId);
+        }
+    }
+
+    /** Growable pair of long arrays holding (studentId, courseId) rows. */
+    private static final class PairBuffer {
+
+        long[] students = new long[1024];
+        long[] courses = new long[1024];
+        int size;
+
+        void add(Object[] row) {
+            if (row[0] == null || row[1] == null) {
+                return;
+            }
+            if (size == students.length) {
+                students = Arrays.copyOf(students, size * 2);
+                courses = Arrays.copyOf(courses, size * 2);
+            }
+            students[size] = ((Number) row[0]).longValue();
+            courses[size] = ((Number) row[1]).longValue();
+            size++;
+        }
+    }
+
+    /** Fixed-size min-heap keeping the K heaviest neighbours. */
+    private static final class TopK {
+
+        private final int[] heapIdx;
+        private final float[] heapWeight;
+        private int size;
+
+        TopK(int capacity) {
+            heapIdx = new int[capacity];
+            heapWeight = new float[capacity];
+        }
+
+        void offer(int idx, float weight) {
+            if (heapIdx.length == 0) {
+                return;
+            }
+            if (size < heapIdx.length) {
+                heapIdx[size] = idx;
+                heapWeight[size] = weight;
+                siftUp(size++);
+            } else if (weight > heapWeight[0]) {
+                heapIdx[0] = idx;
+                heapWeight[0] = weight;
+                siftDown(0);
+            }
+        }
+
+        int[] indices() {
+            return Arrays.copyOf(heapIdx, size);
+        }
+
+        float[] weights() {
+            return Arrays.copyOf(heapWeight, size);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapWeight[parent] <= heapWeight[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && heapWeight[left + 1] < heapWeight[left] ? left + 1 : left;
+                if (heapWeight[i] <= heapWeight[smallest]) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int idx = heapIdx[a];
+            heapIdx[a] = heapIdx[b];
+            heapIdx[b] = idx;
+            float weight = heapWeight[a];
+            heapWeight[a] = heapWeight[b];
+            heapWeight[b] = weight;
+        }
+    }
+}
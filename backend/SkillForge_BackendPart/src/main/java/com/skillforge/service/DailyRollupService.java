@@ -0,0 +1,216 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.ActivitySummaryDTO;
+import com.skillforge.entity.BackfillMarker;
+import com.skillforge.entity.UserDailyStats;
+import com.skillforge.event.EnrollmentChangedEvent;
+import com.skillforge.event.UserRegisteredEvent;
+import com.skillforge.repository.BackfillMarkerRepository;
+import com.skillforge.repository.CourseDailyStatsRepository;
+import com.skillforge.repository.QuizAttemptRepository;
+import com.skillforge.repository.UserDailyStatsRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the per-day rollup tables (course_daily_stats, user_daily_stats) in
+ * step with attempts, enrollments and registrations, and answers "last N
+ * days" questions from them. Attempt counters are upserted in the attempt
+ * writer's batch transaction (see AttemptIngestionService); enrollment and
+ * registration counters in their own transaction once the change has
+ * committed. The tables are backfilled from the raw data once,
+ * before the server starts taking requests (see backfill_markers).
+ */
+@Service
+public class DailyRollupService implements SmartInitializingSingleton {
+
+    // Upper bound on a report window, so a bad parameter cannot ask for centuries of rows
+    private static final int MAX_REPORT_DAYS = 3660;
+
+    private static final String COURSE_BACKFILL = "course_daily_stats";
+    private static final String USER_BACKFILL = "user_daily_stats";
+
+    @Autowired
+    private CourseDailyStatsRepository courseDailyStatsRepository;
+
+    @Autowired
+    private UserDailyStatsRepository userDailyStatsRepository;
+
+    @Autowired
+    private BackfillMarkerRepository backfillMarkerRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // For counters applied after the change that caused them has committed
+    private final TransactionTemplate ownTransaction;
+
+    public DailyRollupService(PlatformTransactionManager transactionManager) {
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Attempt counters of a batch of submissions, summed per day and course before they are written. */
+    public static final class AttemptTally {
+
+        // day -> course id -> {attempts, score sum, scored attempts}
+        private final Map<LocalDate, Map<Long, double[]>> counts = new TreeMap<>();
+
+        public void add(LocalDateTime attemptedAt, Long courseId, Double score) {
+            if (courseId == null) {
+                return;
+            }
+            double[] c = counts.computeIfAbsent(dayOf(attemptedAt), day -> new TreeMap<>())
+                    .computeIfAbsent(courseId, id -> new double[3]);
+            c[0]++;
+            if (score != null) {
+                c[1] += score;
+                c[2]++;
+            }
+        }
+    }
+
+    /**
+     * Adds a tally to course_daily_stats, one upsert per day and course.
+     * Joins the caller's transaction (the attempt writer's), so the counters
+     * commit or roll back with the attempts; failures are thrown.
+     */
+    public void record(AttemptTally tally) {
+        for (Map.Entry<LocalDate, Map<Long, double[]>> day : tally.counts.entrySet()) {
+            for (Map.Entry<Long, double[]> course : day.getValue().entrySet()) {
+                double[] c = course.getValue();
+                courseDailyStatsRepository.increment(day.getKey(), course.getKey(),
+                        (long) c[0], c[1], (long) c[2], 0, 0);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getCourseId() == null) {
+            return;
+        }
+        incrementAfterCommit("course daily stats", () -> courseDailyStatsRepository.increment(LocalDate.now(),
+                event.getCourseId(), 0, 0.0, 0, event.isActive() ? 1 : 0, event.isActive() ? 0 : 1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        incrementAfterCommit("user daily stats",
+                () -> userDailyStatsRepository.incrementNewUsers(dayOf(event.getCreatedAt())));
+    }
+
+    // The change itself has already committed, so a failure here is logged and never fails it
+    private void incrementAfterCommit(String table, Runnable increment) {
+        try {
+            ownTransaction.executeWithoutResult(status -> increment.run());
+        } catch (Exception e) {
+            System.err.println("Failed to update " + table + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One-off backfill from the raw tables. Runs once all beans exist but
+     * before the web server starts, so no live upsert can interleave with it.
+     * Each table is backfilled in its own transaction together with its
+     * marker; a failure rolls that table back and is retried next startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfillOnce(COURSE_BACKFILL, () -> courseDailyStatsRepository.count(), () -> {
+            int rows = courseDailyStatsRepository.backfillAttempts();
+            rows += courseDailyStatsRepository.backfillEnrollments();
+            rows += courseDailyStatsRepository.backfillUnenrollments();
+            System.out.println("Backfilled course daily stats (" + rows + " rows affected)");
+        });
+        backfillOnce(USER_BACKFILL, () -> userDailyStatsRepository.count(), () -> {
+            int rows = userDailyStatsRepository.backfill();
+            System.out.println("Backfilled user daily stats (" + rows + " days)");
+        });
+    }
+
+    private void backfillOnce(String name, LongSupplier existingRows, Runnable backfill) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (backfillMarkerRepository.existsById(name)) {
+                    return;
+                }
+                // Filled by a release that predates the markers; counting again would double it
+                if (existingRows.getAsLong() == 0) {
+                    backfill.run();
+                }
+                backfillMarkerRepository.save(new BackfillMarker(name, LocalDateTime.now()));
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to backfill " + name + ": " + e.getMessage());
+        }
+    }
+
+    /** Activity over the last {@code days} days, today included. */
+    @Transactional(readOnly = true)
+    public ActivitySummaryDTO summarize(int days) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(1, Math.min(days, MAX_REPORT_DAYS)) - 1L);
+        ActivitySummaryDTO summary = new ActivitySummaryDTO();
+        summary.setFrom(from);
+
+        Map<LocalDate, ActivitySummaryDTO.DailyActivity> daily = new TreeMap<>();
+        double scoreSum = 0.0;
+        long scoreCount = 0;
+        for (Object[] row : courseDailyStatsRepository.sumByDaySince(from)) {
+            ActivitySummaryDTO.DailyActivity day = daily.computeIfAbsent((LocalDate) row[0],
+                    ActivitySummaryDTO.DailyActivity::new);
+            day.setAttempts(asLong(row[1]));
+            day.setEnrollments(asLong(row[4]));
+            day.setUnenrollments(asLong(row[5]));
+
+            summary.setAttempts(summary.getAttempts() + day.getAttempts());
+            summary.setEnrollments(summary.getEnrollments() + day.getEnrollments());
+            summary.setUnenrollments(summary.getUnenrollments() + day.getUnenrollments());
+            scoreSum += row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
+            scoreCount += asLong(row[3]);
+        }
+        summary.setAverageScore(scoreCount > 0 ? Math.round(scoreSum / scoreCount * 100.0) / 100.0 : 0.0);
+
+        for (UserDailyStats row : userDailyStatsRepository.findSince(from)) {
+            daily.computeIfAbsent(row.getStatDate(), ActivitySummaryDTO.DailyActivity::new)
+                    .setNewUsers(row.getNewUsers());
+            summary.setNewUsers(summary.getNewUsers() + row.getNewUsers());
+        }
+        summary.setDaily(new ArrayList<>(daily.values()));
+
+        summary.setActiveCourses(courseDailyStatsRepository.countActiveCoursesSince(from));
+        summary.setActiveUsers(quizAttemptRepository.countDistinctStudentsSince(from.atStartOfDay()));
+
+        List<Object[]> top = courseDailyStatsRepository.topCoursesByEnrollmentsSince(from, PageRequest.of(0, 1));
+        if (!top.isEmpty()) {
+            summary.setMostPopularCourseId((Long) top.get(0)[0]);
+        }
+        return summary;
+    }
+
+    private static LocalDate dayOf(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toLocalDate() : LocalDate.now();
+    }
+
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
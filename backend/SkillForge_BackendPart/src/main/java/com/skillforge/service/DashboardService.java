@@ -3,16 +3,30 @@ package com.skillforge.service;
 import com.skillforge.dto.*;
 import com.skillforge.entity.*;
 import com.skillforge.repository.*;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class DashboardService {
 
+    private static final int RECENT_ATTEMPTS_PER_COURSE = 5;
+    private static final int RECENT_ACTIVITY_LIMIT = 10;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -37,24 +51,66 @@ public class DashboardService {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private StudentDataLoader studentDataLoader;
+
+    @Value("${dashboard.student.deadline-ms:3000}")
+    private long studentDeadlineMs;
+
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public DashboardService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Builds the student dashboard from three independent sections (recommendations,
+     * per-course analytics, and the student's own activity) that run in parallel on
+     * virtual threads over one shared {@link StudentDataLoader}. All sections share a
+     * single deadline; a section that misses it or fails is left empty rather than
+     * failing the whole dashboard.
+     */
     public StudentDashboardDTO getStudentDashboard(Long studentId) {
-        StudentDashboardDTO dashboard = new StudentDashboardDTO();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(studentDeadlineMs);
+        StudentDataLoader.StudentData data = studentDataLoader.load(studentId, sectionExecutor);
+
+        Future<List<CourseDTO>> recommendedSection = section(data, () ->
+                recommendationService.recommendForStudent(studentId, data).stream()
+                        .map(c -> courseService.convertToDTO(c))
+                        .collect(Collectors.toList()));
+        Future<List<Map<String, Object>>> analyticsSection = section(data, () ->
+                analyticsService.studentAnalytics(studentId, data));
+        Future<StudentDashboardDTO> activitySection = section(data, () -> buildStudentActivity(data));
+
+        StudentDashboardDTO dashboard = await(activitySection, deadline, null, "activity");
+        if (dashboard == null) {
+            dashboard = new StudentDashboardDTO();
+            dashboard.setEnrolledCourses(new ArrayList<>());
+            dashboard.setRecentActivities(new ArrayList<>());
+            dashboard.setProgressData(new HashMap<>());
+        }
+        dashboard.setRecommendedCourses(await(recommendedSection, deadline, new ArrayList<>(), "recommendations"));
+        dashboard.getProgressData().put("courseAnalytics",
+                await(analyticsSection, deadline, new ArrayList<>(), "analytics"));
+        return dashboard;
+    }
 
-        // Get recommended courses (AI-based)
-        List<Course> recommended = recommendationService.recommendForStudent(studentId);
-        dashboard.setRecommendedCourses(recommended.stream()
-                .map(c -> courseService.convertToDTO(c))
-                .collect(Collectors.toList()));
+    // Enrolled courses, recent activity, overall score and score progression
+    private StudentDashboardDTO buildStudentActivity(StudentDataLoader.StudentData data) {
+        StudentDashboardDTO dashboard = new StudentDashboardDTO();
 
         // Get enrolled courses
-        List<CourseEnrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
+        List<CourseEnrollment> enrollments = data.enrollments();
         dashboard.setEnrolledCourses(enrollments.stream()
                 .filter(e -> e.getUnenrolledAt() == null)
                 .map(e -> courseService.convertToDTO(e.getCourse()))
                 .collect(Collectors.toList()));
 
         // Get recent activities
-        List<QuizAttempt> recentAttempts = quizAttemptRepository.findByStudentIdWithQuizCourse(studentId);
+        List<QuizAttempt> recentAttempts = data.attempts();
         List<RecentActivityDTO> activities = new ArrayList<>();
         
         // Add quiz attempts
@@ -97,10 +153,8 @@ public class DashboardService {
                 .orElse(0.0);
         dashboard.setOverallScore(overallScore);
 
-        // Progress data for graphs
+        // Progress data for graphs; courseAnalytics is added by the analytics section
         Map<String, Object> progressData = new HashMap<>();
-        List<Map<String, Object>> analytics = analyticsService.studentAnalytics(studentId);
-        progressData.put("courseAnalytics", analytics);
         
         // Score progression over time
         List<Map<String, Object>> scoreProgression = new ArrayList<>();
@@ -123,6 +177,37 @@ public class DashboardService {
         return dashboard;
     }
 
+    // Sections run in their own read-only transaction so lazy associations can still load.
+    // That transaction takes a pooled connection as it begins, so each section first waits
+    // for the loader's queries: no section holds a connection while the loader needs one,
+    // and a cancelled section stops waiting without having taken one.
+    private <T> Future<T> section(StudentDataLoader.StudentData data, Supplier<T> work) {
+        return sectionExecutor.submit(() -> {
+            data.await();
+            return readOnlyTransaction.execute(status -> work.get());
+        });
+    }
+
+    private <T> T await(Future<T> section, long deadline, T fallback, String name) {
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            section.cancel(true);
+            System.err.println("Student dashboard section '" + name + "' missed the " + studentDeadlineMs + " ms deadline");
+        } catch (InterruptedException e) {
+            section.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Student dashboard section '" + name + "' failed: " + e.getCause());
+        }
+        return fallback;
+    }
+
+    @PreDestroy
+    public void shutdownSections() {
+        sectionExecutor.shutdownNow();
+    }
+
     public InstructorDashboardDTO getInstructorDashboard(Long instructorId) {
         InstructorDashboardDTO dashboard = new InstructorDashboardDTO();
 
@@ -130,35 +215,44 @@ public class DashboardService {
         List<Course> courses = courseRepository.findByInstructorId(instructorId);
         dashboard.setTotalCoursesCreated(courses.size());
 
-        // Get total students enrolled across all courses
-        long totalStudents = 0;
-        for (Course course : courses) {
-            totalStudents += enrollmentRepository.countByCourseId(course.getId());
+        if (courses.isEmpty()) {
+            dashboard.setTotalStudentsEnrolled(0);
+            dashboard.setRecentActivities(new ArrayList<>());
+            dashboard.setCourseStats(new ArrayList<>());
+            return dashboard;
+        }
+        List<Long> courseIds = courses.stream().map(Course::getId).collect(Collectors.toList());
+
+        // Enrollment counts and average scores for all courses, one grouped query each
+        Map<Long, Long> enrollmentCounts = new HashMap<>();
+        for (Object[] row : enrollmentRepository.countGroupedByCourse(courseIds)) {
+            enrollmentCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        Map<Long, Double> averageScores = new HashMap<>();
+        for (CourseAttemptStats row : quizAttemptRepository.findStatsByCourseIds(courseIds)) {
+            averageScores.put(row.getCourseId(), row.getScoredAverage());
         }
+
+        // Get total students enrolled across all courses
+        long totalStudents = enrollmentCounts.values().stream().mapToLong(Long::longValue).sum();
         dashboard.setTotalStudentsEnrolled((int) totalStudents);
 
-        // Recent activities
+        // Recent quiz attempts in instructor's courses: the newest few per course, already newest first
         List<RecentActivityDTO> activities = new ArrayList<>();
-        
-        // Recent quiz attempts in instructor's courses
-        courses.forEach(course -> {
-            List<QuizAttempt> attempts = quizAttemptRepository.findByQuizCourseId(course.getId());
-            attempts.stream()
-                    .limit(5)
-                    .forEach(attempt -> {
-                        RecentActivityDTO activity = new RecentActivityDTO();
-                        activity.setActivityType("QUIZ_ATTEMPT");
-                        activity.setTitle(attempt.getQuiz() != null ? attempt.getQuiz().getTitle() : "Quiz");
-                        activity.setTimestamp(attempt.getAttemptedAt());
-                        activity.setScore(attempt.getScore());
-                        activity.setQuizId(attempt.getQuiz() != null ? attempt.getQuiz().getId() : null);
-                        activity.setCourseId(course.getId());
-                        activities.add(activity);
-                    });
-        });
-
-        activities.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-        dashboard.setRecentActivities(activities.stream().limit(10).collect(Collectors.toList()));
+        for (RecentAttemptView attempt : quizAttemptRepository.findLatestByCourseIds(courseIds, RECENT_ATTEMPTS_PER_COURSE)) {
+            if (activities.size() == RECENT_ACTIVITY_LIMIT) {
+                break;
+            }
+            RecentActivityDTO activity = new RecentActivityDTO();
+            activity.setActivityType("QUIZ_ATTEMPT");
+            activity.setTitle(attempt.getQuizTitle() != null ? attempt.getQuizTitle() : "Quiz");
+            activity.setTimestamp(attempt.getAttemptedAt());
+            activity.setScore(attempt.getScore());
+            activity.setQuizId(attempt.getQuizId());
+            activity.setCourseId(attempt.getCourseId());
+            activities.add(activity);
+        }
+        dashboard.setRecentActivities(activities);
 
         // Course stats
         List<CourseStatsDTO> courseStats = new ArrayList<>();
@@ -166,9 +260,9 @@ public class DashboardService {
             CourseStatsDTO stats = new CourseStatsDTO();
             stats.setCourseId(course.getId());
             stats.setCourseTitle(course.getTitle());
-            stats.setStudentCount((int) enrollmentRepository.countByCourseId(course.getId()));
+            stats.setStudentCount(enrollmentCounts.getOrDefault(course.getId(), 0L).intValue());
             
-            Double avgScore = quizAttemptRepository.findAverageScoreByCourseId(course.getId());
+            Double avgScore = averageScores.get(course.getId());
             stats.setAverageScore(avgScore != null ? avgScore : 0.0);
             
             courseStats.add(stats);
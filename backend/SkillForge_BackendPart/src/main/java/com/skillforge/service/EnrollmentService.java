@@ -3,10 +3,12 @@ package com.skillforge.service;
 import com.skillforge.entity.Course;
 import com.skillforge.entity.CourseEnrollment;
 import com.skillforge.entity.User;
+import com.skillforge.event.EnrollmentChangedEvent;
 import com.skillforge.repository.CourseEnrollmentRepository;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -24,6 +26,9 @@ public class EnrollmentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public CourseEnrollment enroll(Long courseId, Long studentId) {
         if (enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
             throw new RuntimeException("Already enrolled");
@@ -37,7 +42,9 @@ public class EnrollmentService {
         enrollment.setStudent(student);
         enrollment.setEnrolledAt(LocalDateTime.now());
 
-        return enrollmentRepository.save(enrollment);
+        CourseEnrollment saved = enrollmentRepository.save(enrollment);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, studentId, true));
+        return saved;
     }
 
     public List<CourseEnrollment> getEnrollmentsForStudent(Long studentId) {
@@ -59,7 +66,9 @@ public class EnrollmentService {
             e.setCourse(course);
             e.setStudent(student);
             e.setEnrolledAt(LocalDateTime.now());
-            return enrollmentRepository.save(e);
+            CourseEnrollment saved = enrollmentRepository.save(e);
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, studentId, true));
+            return saved;
         }
         if (existing.getUnenrolledAt() == null) {
             existing.setUnenrolledAt(LocalDateTime.now());
@@ -67,7 +76,9 @@ public class EnrollmentService {
             existing.setEnrolledAt(LocalDateTime.now());
             existing.setUnenrolledAt(null);
         }
-        return enrollmentRepository.save(existing);
+        CourseEnrollment saved = enrollmentRepository.save(existing);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, studentId, saved.getUnenrolledAt() == null));
+        return saved;
     }
 
     public boolean isEnrolled(Long courseId, Long studentId) {
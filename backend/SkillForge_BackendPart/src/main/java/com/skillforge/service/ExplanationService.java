@@ -0,0 +1,177 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.Question;
+import com.skillforge.entity.QuestionExplanation;
+import com.skillforge.entity.Quiz;
+import com.skillforge.event.CourseCatalogChangedEvent;
+import com.skillforge.event.QuizChangedEvent;
+import com.skillforge.repository.QuestionExplanationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clarifications for quiz questions, generated once per (question, student
+ * answer, query) and stored in question_explanations. Answers are
+ * normalized first: one that matches an option is keyed by the option
+ * index, free text by its lower-cased, whitespace-collapsed form. Identical
+ * requests arriving while a generation is running wait for it instead of
+ * starting their own.
+ */
+@Service
+public class ExplanationService {
+
+    @Autowired
+    private QuestionExplanationRepository explanationRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Stored explanation for the request, or the result of {@code generator}
+     * (which is then stored). Blank results are returned but not stored.
+     */
+    public String explain(Quiz quiz, Question question, String studentAnswer, String query,
+                          Callable<String> generator) throws Exception {
+        String answerHash = sha256(normalizeAnswer(quiz.getId(), question.getId(), studentAnswer));
+        String queryHash = sha256(normalizeText(query));
+        String questionHash = fingerprint(question);
+
+        QuestionExplanation stored = explanationRepository
+                .findByQuestionIdAndAnswerHashAndQueryHash(question.getId(), answerHash, queryHash)
+                .orElse(null);
+        if (stored != null && questionHash.equals(stored.getQuestionHash())) {
+            count("stored");
+            return stored.getExplanation();
+        }
+
+        String flightKey = question.getId() + ":" + questionHash + ":" + answerHash + ":" + queryHash;
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(flightKey, mine);
+        if (running != null) {
+            count("coalesced");
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        try {
+            String explanation = generator.call();
+            explanation = explanation != null ? explanation.trim() : "";
+            count("generated");
+            if (!explanation.isEmpty()) {
+                store(stored, quiz, question, answerHash, queryHash, questionHash, explanation);
+            }
+            mine.complete(explanation);
+            return explanation;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private void store(QuestionExplanation stale, Quiz quiz, Question question, String answerHash,
+                       String queryHash, String questionHash, String explanation) {
+        QuestionExplanation row = stale != null ? stale : new QuestionExplanation();
+        row.setQuestionId(question.getId());
+        row.setQuizId(quiz.getId());
+        row.setCourseId(quiz.getCourse() != null ? quiz.getCourse().getId() : null);
+        row.setAnswerHash(answerHash);
+        row.setQueryHash(queryHash);
+        row.setQuestionHash(questionHash);
+        row.setExplanation(explanation);
+        row.setCreatedAt(LocalDateTime.now());
+        try {
+            explanationRepository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same key first
+        } catch (Exception e) {
+            System.err.println("Failed to store explanation for question " + question.getId() + ": " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onQuizChanged(QuizChangedEvent event) {
+        if (event.getType() != QuizChangedEvent.Type.CREATED && event.getQuizId() != null) {
+            explanationRepository.deleteByQuizId(event.getQuizId());
+        }
+    }
+
+    // Deleting a course deletes its quizzes and questions
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        if (event.getType() == CourseCatalogChangedEvent.Type.DELETED && event.getCourseId() != null) {
+            explanationRepository.deleteByCourseId(event.getCourseId());
+        }
+    }
+
+    // "#<index>" when the answer is one of the options, otherwise the normalized text
+    private String normalizeAnswer(Long quizId, Long questionId, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return "";
+        }
+        try {
+            AnswerKey key = answerKeyCache.get(quizId);
+            int index = key.indexOf(questionId);
+            if (index >= 0) {
+                List<String> options = key.options(index);
+                for (int o = 0; o < options.size(); o++) {
+                    if (options.get(o) != null && AnswerKey.matches(options.get(o).trim(), answer)) {
+                        return "#" + o;
+                    }
+                }
+            }
+        } catch (Exception ignored) {
+        }
+        return normalizeText(answer);
+    }
+
+    private static String normalizeText(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String fingerprint(Question question) {
+        return sha256(question.getPrompt() + '\u0000' + question.getOptionsJson() + '\u0000'
+                + question.getCorrectAnswer());
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("clarify.explanations", "result", result).increment();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The one way to call Gemini's generateContent. A single HttpClient (HTTP/2,
+ * pooled connections) is shared by every caller. Each attempt has a
+ * connect and a request timeout. 429, 5xx and I/O errors are retried with
+ * full-jitter exponential backoff. A Retry-After is honoured in full, within
+ * a per-call retry budget; a wait that does not fit fails the call at once. A circuit
+ * breaker stops calling after repeated failures. The API key goes in a
+ * header, and request bodies are built with Jackson.
+ *
+ * Calls are timed as gemini.call{outcome}. Set gemini.base-url to the stub
+ * server (GeminiStubServer) to run every AI path offline.
+ */
+@Component
+public class GeminiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter retries;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final String defaultModel;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long retryBudgetMs;
+
+    public GeminiClient(MeterRegistry meterRegistry,
+                        @Value("${gemini.api.key:}") String apiKey,
+                        @Value("${gemini.base-url:https://generativelanguage.googleapis.com}") String baseUrl,
+                        @Value("${gemini.model:gemini-2.5-flash}") String defaultModel,
+                        @Value("${gemini.connect-timeout-ms:3000}") long connectTimeoutMs,
+                        @Value("${gemini.request-timeout-ms:30000}") long requestTimeoutMs,
+                        @Value("${gemini.max-attempts:3}") int maxAttempts,
+                        @Value("${gemini.backoff-base-ms:250}") long backoffBaseMs,
+                        @Value("${gemini.backoff-max-ms:4000}") long backoffMaxMs,
+                        @Value("${gemini.retry-budget-ms:20000}") long retryBudgetMs,
+                        @Value("${gemini.circuit.failure-threshold:5}") int failureThreshold,
+                        @Value("${gemini.circuit.open-ms:30000}") long openMs) {
+        this.meterRegistry = meterRegistry;
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.defaultModel = defaultModel;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.retryBudgetMs = retryBudgetMs;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+
+        this.retries = Counter.builder("gemini.retries").register(meterRegistry);
+        Gauge.builder("gemini.circuit.open", circuitBreaker,
+                cb -> cb.getState() == CircuitBreaker.State.CLOSED ? 0 : 1).register(meterRegistry);
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    /** Text of the first candidate; throws if the call fails or there is none. */
+    public String generateText(String prompt) {
+        return generateText(prompt, null);
+    }
+
+    public String generateText(String prompt, Map<String, Object> generationConfig) {
+        JsonNode root = generateContent(prompt, generationConfig);
+        String text = textOf(root);
+        if (text == null) {
+            throw new GeminiException("Gemini API returned no candidates", 200);
+        }
+        return text;
+    }
+
+    /** Full generateContent response for a single-turn prompt with the default model. */
+    public JsonNode generateContent(String prompt, Map<String, Object> generationConfig) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("contents", List.of(Map.of("role", "user", "parts", List.of(Map.of("text", prompt)))));
+        if (generationConfig != null) {
+            payload.put("generationConfig", generationConfig);
+        }
+        try {
+            return MAPPER.readTree(call(defaultModel, MAPPER.writeValueAsString(payload)));
+        } catch (IOException e) {
+            throw new GeminiException("Unreadable Gemini response: " + e.getMessage(), e);
+        }
+    }
+
+    /** First candidate's text, or null when the response has none. */
+    public static String textOf(JsonNode root) {
+        JsonNode candidates = root.path("candidates");
+        if (!candidates.isArray() || candidates.isEmpty()) {
+            return null;
+        }
+        JsonNode text = candidates.get(0).path("content").path("parts").path(0).path("text");
+        return text.isMissingNode() || text.isNull() ? null : text.asText();
+    }
+
+    private String call(String model, String body) {
+        if (!isConfigured()) {
+            throw new GeminiException("Gemini API key is not configured", 0);
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/v1beta/models/" + model + ":generateContent"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("x-goog-api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        GeminiException last = null;
+        long budgetLeft = retryBudgetMs;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                long delay = backoffMillis(attempt, last);
+                if (delay > budgetLeft) {
+                    // Gemini asked for a longer pause than this call can afford; let the caller decide
+                    throw last;
+                }
+                budgetLeft -= delay;
+                retries.increment();
+                if (!sleep(delay)) {
+                    break;
+                }
+            }
+            if (!circuitBreaker.tryAcquire()) {
+                record("circuit_open", 0);
+                throw new GeminiException("Gemini is temporarily unavailable, please try again shortly", 503);
+            }
+
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                record("io_error", System.nanoTime() - start);
+                last = new GeminiException("Gemini request failed: " + e.getMessage(), e);
+                continue;
+            } catch (InterruptedException e) {
+                circuitBreaker.release();
+                Thread.currentThread().interrupt();
+                throw new GeminiException("Interrupted while calling Gemini", e);
+            }
+
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                circuitBreaker.onSuccess();
+                record("success", System.nanoTime() - start);
+                return response.body();
+            }
+            if (status == 429 || status >= 500) {
+                circuitBreaker.onFailure();
+                record(status == 429 ? "rate_limited" : "server_error", System.nanoTime() - start);
+                last = new RetryableStatus(status, response.headers().firstValue("Retry-After").orElse(null));
+                continue;
+            }
+            // Our request is wrong; Gemini itself is fine, and retrying will not help
+            circuitBreaker.onSuccess();
+            record("client_error", System.nanoTime() - start);
+            throw new GeminiException("Gemini API error: " + status + " " + response.body(), status);
+        }
+        throw last != null ? last : new GeminiException("Gemini request failed", 0);
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-2))]. Retry-After is honoured in full;
+    // the retry budget, not backoff-max-ms, bounds it
+    private long backoffMillis(int attempt, GeminiException last) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, attempt - 2));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (last instanceof RetryableStatus retryable && retryable.retryAfterMillis > 0) {
+            delay = Math.max(delay, retryable.retryAfterMillis);
+        }
+        return delay;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(String outcome, long nanos) {
+        Timer.builder("gemini.call").tag("outcome", outcome).register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    private static final class RetryableStatus extends GeminiException {
+
+        final long retryAfterMillis;
+
+        RetryableStatus(int status, String retryAfter) {
+            super("Gemini API error: " + status, status);
+            this.retryAfterMillis = retryAfter != null ? parseRetryAfter(retryAfter.trim()) : 0;
+        }
+
+        // Delay-seconds or HTTP-date; 0 when unreadable, which falls back to our own backoff
+        static long parseRetryAfter(String value) {
+            try {
+                return Math.max(0, Long.parseLong(value) * 1000);
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+                } catch (DateTimeParseException notDate) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.skillforge.service;
+
+/**
+ * A Gemini call that failed after retries, or was refused because the
+ * circuit is open. statusCode is the last HTTP status, or 0 when no
+ * response was received.
+ */
+public class GeminiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public GeminiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public GeminiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -1,23 +1,19 @@
 package com.skillforge.service;
 
-import org.springframework.http.*;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
 public class GeminiService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    public String generateQuizJSON(String topic, int count, String apiKey) throws Exception {
-        // ✅ Correct endpoint with API key as query parameter
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=" + apiKey;
+    @Autowired
+    private GeminiClient geminiClient;
 
+    public String generateQuizJSON(String topic, int count) {
         // ✅ Gemini prompt - explicitly request raw JSON without markdown
         String prompt = String.format(
                 "Generate %d multiple choice questions about '%s'. " +
@@ -28,49 +24,10 @@ public class GeminiService {
                 count, topic
         );
 
-        // ✅ Request body for Gemini
-        String requestBody = String.format(
-                "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]}",
-                prompt.replace("\"", "\\\"") // escape quotes safely
-        );
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-
-        // ✅ Make POST request
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-
-        if (response.getStatusCode() == HttpStatus.OK) {
-            return extractJsonFromGeminiResponse(response.getBody());
-        } else {
-            throw new RuntimeException("Gemini API error: " + response.getStatusCode());
-        }
-    }
-
-    // ✅ Extract the text content (the JSON Gemini generated)
-    private String extractJsonFromGeminiResponse(String responseBody) throws Exception {
-        JsonNode root = mapper.readTree(responseBody);
-        JsonNode candidates = root.path("candidates");
-        
-        if (candidates.isEmpty() || !candidates.isArray()) {
-            throw new RuntimeException("Gemini API returned no candidates. Response: " + responseBody);
-        }
-        
-        JsonNode textNode = candidates.get(0)
-                .path("content").path("parts").get(0).path("text");
-
-        if (textNode.isMissingNode() || textNode.isNull()) {
-            throw new RuntimeException("Gemini API returned invalid response (missing text). Response: " + responseBody);
-        }
-
-        String rawText = textNode.asText();
-        
         // Clean the JSON by removing markdown code blocks if present
-        return cleanJsonFromMarkdown(rawText);
+        return cleanJsonFromMarkdown(geminiClient.generateText(prompt));
     }
-    
+
     // ✅ Clean JSON string from markdown code blocks (e.g., ```json ... ```)
     private String cleanJsonFromMarkdown(String text) {
         if (text == null || text.isEmpty()) {
@@ -115,30 +72,53 @@ public class GeminiService {
         return cleaned;
     }
 
-    // ✅ General-purpose text generation for explanations
-    public String generateText(String prompt, String apiKey) throws Exception {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=" + apiKey;
-
-        String requestBody = String.format(
-                "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]}",
-                prompt.replace("\"", "\\\"")
+    // ✅ Quiz questions as raw text for the frontend to parse (nothing is saved)
+    public Map<String, Object> generateQuizPreview(String topic, Integer questionCount, String difficulty,
+                                                   String courseContext, String prompt) {
+        // Use the provided prompt or create a default one
+        String aiPrompt = prompt != null ? prompt : String.format(
+                "Generate %d multiple choice quiz questions EXCLUSIVELY about '%s' for %s level students. "
+                + "CRITICAL REQUIREMENTS: "
+                + "- Every question must be SPECIFICALLY about '%s' - not general concepts "
+                + "- Test practical understanding and real-world application of '%s' "
+                + "- Each question has exactly 4 options with only one correct answer "
+                + "- Questions should be challenging but appropriate for %s level "
+                + "- Focus on the most important aspects of '%s' "
+                + "RESPONSE FORMAT - Return ONLY valid JSON array: "
+                + "[{\"prompt\":\"Question about %s?\",\"options\":[\"Option 1\",\"Option 2\",\"Option 3\",\"Option 4\"],\"correctAnswer\":\"Option 1\",\"type\":\"MCQ\"}] "
+                + "Generate %d questions specifically about '%s' now. Return only the JSON array:",
+                questionCount, topic, difficulty, topic, topic, difficulty, topic, topic, questionCount, topic);
+
+        Map<String, Object> generationConfig = Map.of(
+                "temperature", 0.7,
+                "topK", 40,
+                "topP", 0.95,
+                "maxOutputTokens", 2000
         );
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-        if (response.getStatusCode() != HttpStatus.OK) {
-            throw new RuntimeException("Gemini API error: " + response.getStatusCode());
+        // Non-2xx responses surface as GeminiException after the client's retries
+        JsonNode root = geminiClient.generateContent(aiPrompt, generationConfig);
+        String generatedText = GeminiClient.textOf(root);
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (generatedText != null) {
+            // Return the generated text for frontend to parse
+            result.put("generatedText", generatedText);
+            result.put("topic", topic);
+            result.put("difficulty", difficulty);
+            result.put("questionCount", questionCount);
+            result.put("success", true);
+            return result;
         }
 
-        JsonNode root = mapper.readTree(response.getBody());
-        JsonNode candidates = root.path("candidates");
-        if (candidates.isEmpty() || !candidates.isArray()) {
-            throw new RuntimeException("Gemini API returned no candidates");
-        }
-        JsonNode textNode = candidates.get(0).path("content").path("parts").get(0).path("text");
-        return textNode.isMissingNode() ? "" : textNode.asText();
+        // Fallback: if the response doesn't have candidates in expected format, return raw body
+        System.err.println("Unexpected Gemini response structure for quiz generation: " + root);
+        result.put("generatedText", root.toString());
+        result.put("success", false);
+        return result;
+    }
+
+    // ✅ General-purpose text generation for explanations
+    public String generateText(String prompt) {
+        return geminiClient.generateText(prompt);
     }
 }
@@ -0,0 +1,134 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for Gemini's generateContent, for load-testing the AI paths
+ * offline (enable with the gemini-stub profile). It answers on localhost
+ * with canned texts from classpath:gemini-stub/, picked by what the prompt
+ * asks for, wrapped in a Gemini response. Each reply is delayed by
+ * latency-ms plus up to latency-jitter-ms. A fraction error-rate of calls
+ * get a 503, to exercise retries and the circuit breaker.
+ */
+@Component
+@ConditionalOnProperty(name = "gemini.stub.enabled", havingValue = "true")
+public class GeminiStubServer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double errorRate;
+
+    private final String quizQuestions;
+    private final String quizArray;
+    private final String feedbackSummary;
+    private final String explanation;
+
+    public GeminiStubServer(@Value("${gemini.stub.port:8089}") int port,
+                            @Value("${gemini.stub.latency-ms:800}") long latencyMs,
+                            @Value("${gemini.stub.latency-jitter-ms:400}") long latencyJitterMs,
+                            @Value("${gemini.stub.error-rate:0.0}") double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.errorRate = errorRate;
+        this.quizQuestions = canned("quiz-questions.json");
+        this.quizArray = canned("quiz-array.json");
+        this.feedbackSummary = canned("feedback-summary.json");
+        this.explanation = canned("explanation.txt");
+
+        // Replies mostly sleep, so each one gets a virtual thread
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/v1beta/models/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+        System.out.println("Gemini stub listening on http://localhost:" + port);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !exchange.getRequestURI().getPath().endsWith(":generateContent")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            JsonNode request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = MAPPER.readTree(in);
+            }
+            String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText("");
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Thread.sleep(latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0));
+
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                respond(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"stub overloaded\",\"status\":\"UNAVAILABLE\"}}");
+                return;
+            }
+            Map<String, Object> body = Map.of("candidates", List.of(Map.of(
+                    "content", Map.of("role", "model", "parts", List.of(Map.of("text", replyFor(prompt)))),
+                    "finishReason", "STOP")));
+            respond(exchange, 200, MAPPER.writeValueAsString(body));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Mirrors the output format each prompt asks for
+    private String replyFor(String prompt) {
+        if (prompt.contains("{\"questions\"")) {
+            return quizQuestions;
+        }
+        if (prompt.contains("JSON array")) {
+            return quizArray;
+        }
+        if (prompt.contains("\"themes\"")) {
+            return feedbackSummary;
+        }
+        return explanation;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String canned(String name) throws IOException {
+        try (InputStream in = new ClassPathResource("gemini-stub/" + name).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
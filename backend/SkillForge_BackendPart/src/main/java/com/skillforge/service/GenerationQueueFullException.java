@@ -0,0 +1,12 @@
+package com.skillforge.service;
+
+/**
+ * Thrown when a quiz generation is refused because too many jobs are
+ * already queued or running.
+ */
+public class GenerationQueueFullException extends RuntimeException {
+
+    public GenerationQueueFullException(String message) {
+        super(message);
+    }
+}
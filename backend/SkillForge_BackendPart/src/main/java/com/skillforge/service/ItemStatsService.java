@@ -0,0 +1,293 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.BackfillMarker;
+import com.skillforge.entity.QuestionStats;
+import com.skillforge.repository.BackfillMarkerRepository;
+import com.skillforge.repository.QuestionStatsRepository;
+import com.skillforge.repository.QuizAttemptAnswerRepository;
+import com.skillforge.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-question item statistics (question_stats): attempts, correct answers,
+ * picks per option and the score sums behind the point-biserial index.
+ * Graded submissions add their counts in the attempt writer's transaction
+ * (see AttemptIngestionService), one upsert per question per batch; the
+ * table is backfilled once from existing attempts before the server starts
+ * taking submissions.
+ */
+@Service
+public class ItemStatsService implements SmartInitializingSingleton {
+
+    private static final String UPSERT = "INSERT INTO question_stats (question_id, quiz_id, attempts, correct_count, "
+            + "no_answer_count, other_count, option0_picks, option1_picks, option2_picks, option3_picks, "
+            + "score_sum, score_sq_sum, correct_score_sum) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS d "
+            + "ON DUPLICATE KEY UPDATE attempts = question_stats.attempts + d.attempts, "
+            + "correct_count = question_stats.correct_count + d.correct_count, "
+            + "no_answer_count = question_stats.no_answer_count + d.no_answer_count, "
+            + "other_count = question_stats.other_count + d.other_count, "
+            + "option0_picks = question_stats.option0_picks + d.option0_picks, "
+            + "option1_picks = question_stats.option1_picks + d.option1_picks, "
+            + "option2_picks = question_stats.option2_picks + d.option2_picks, "
+            + "option3_picks = question_stats.option3_picks + d.option3_picks, "
+            + "score_sum = question_stats.score_sum + d.score_sum, "
+            + "score_sq_sum = question_stats.score_sq_sum + d.score_sq_sum, "
+            + "correct_score_sum = question_stats.correct_score_sum + d.correct_score_sum";
+
+    private static final int UPSERT_CHUNK = 500;
+    private static final String BACKFILL = "question_stats";
+
+    @Autowired
+    private QuestionStatsRepository questionStatsRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BackfillMarkerRepository backfillMarkerRepository;
+
+    /** Per-question counts of a batch of graded submissions, summed before they are written. */
+    public static final class Tally {
+
+        private final Map<Long, Counts> totals = new TreeMap<>();
+
+        public void add(AnswerKey key, AnswerKey.Grade grade, double score) {
+            for (int i = 0; i < key.size(); i++) {
+                totals.computeIfAbsent(key.questionId(i), id -> new Counts(id, key.getQuizId())).add(grade, i, score);
+            }
+        }
+    }
+
+    /**
+     * Adds a tally to question_stats, one upsert per question, in question
+     * id order. Joins the caller's transaction, so the counts commit or roll
+     * back with the attempts they came from; failures are thrown.
+     */
+    public void record(Tally tally) {
+        if (!tally.totals.isEmpty()) {
+            upsert(new ArrayList<>(tally.totals.values()));
+        }
+    }
+
+    /** Item analysis of a quiz, in question order, read from question_stats only. */
+    public List<Map<String, Object>> itemAnalysis(Long quizId) {
+        AnswerKey key = answerKeyCache.get(quizId);
+        Map<Long, QuestionStats> byQuestion = new HashMap<>();
+        for (QuestionStats stats : questionStatsRepository.findByQuizId(quizId)) {
+            byQuestion.put(stats.getQuestionId(), stats);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(key.size());
+        for (int i = 0; i < key.size(); i++) {
+            QuestionStats stats = byQuestion.get(key.questionId(i));
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("questionId", key.questionId(i));
+            item.put("prompt", key.prompt(i));
+            item.put("attempts", stats != null ? stats.getAttempts() : 0L);
+            item.put("correctCount", stats != null ? stats.getCorrectCount() : 0L);
+            item.put("difficulty", stats != null ? stats.getDifficulty() : 0.0);
+            item.put("discrimination", stats != null ? stats.getDiscrimination() : null);
+            item.put("noAnswerCount", stats != null ? stats.getNoAnswerCount() : 0L);
+            item.put("otherCount", stats != null ? stats.getOtherCount() : 0L);
+
+            List<Map<String, Object>> options = new ArrayList<>();
+            List<String> texts = key.options(i);
+            for (int o = 0; o < texts.size() && o < QuestionStats.MAX_OPTIONS; o++) {
+                Map<String, Object> option = new LinkedHashMap<>();
+                option.put("option", texts.get(o));
+                option.put("picks", stats != null ? stats.getOptionPicks(o) : 0L);
+                option.put("correct", AnswerKey.matches(
+                        key.correctAnswer(i) != null ? key.correctAnswer(i).trim() : null, texts.get(o)));
+                options.add(option);
+            }
+            item.put("options", options);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * One-off backfill from existing attempts. Runs once all beans exist but
+     * before the web server starts, so every attempt made so far is counted
+     * here and every later one by record(Tally), with none in both. Completion
+     * is recorded in backfill_markers together with the counts.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            if (backfillMarkerRepository.existsById(BACKFILL)) {
+                return;
+            }
+            if (questionStatsRepository.count() > 0) {
+                // Filled by a release that predates the markers; counting again would double it
+                markBackfilled();
+                return;
+            }
+            LocalDateTime before = LocalDateTime.now();
+
+            // Keys are compiled up front: the attempt rows are streamed, so the connection
+            // cannot run other queries until the stream is closed
+            Map<Long, AnswerKey> keys = new HashMap<>();
+            for (Long quizId : quizAttemptRepository.findDistinctQuizIds()) {
+                try {
+                    keys.put(quizId, answerKeyCache.get(quizId));
+                } catch (Exception ignored) {
+                }
+            }
+            if (keys.isEmpty()) {
+                markBackfilled();
+                return;
+            }
+
+            // Both streams read in one transaction, so they see the same snapshot even if
+            // AnswerMigrationJob moves attempts from JSON to answer rows meanwhile
+            Map<Long, Counts> totals = new HashMap<>();
+            long attempts = transactionTemplate.execute(status -> {
+                long seen = 0;
+                try (Stream<Object[]> rows = quizAttemptAnswerRepository.streamAnswersBefore(before)) {
+                    Long attemptId = null;
+                    AnswerKey key = null;
+                    double score = 0.0;
+                    Map<Long, String> answers = new HashMap<>();
+                    for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                        if (!row[0].equals(attemptId)) {
+                            if (addAttempt(totals, key, answers, score)) {
+                                seen++;
+                            }
+                            attemptId = (Long) row[0];
+                            key = keys.get((Long) row[1]);
+                            score = row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
+                            answers = new HashMap<>();
+                        }
+                        Long questionId = (Long) row[3];
+                        answers.put(questionId, AttemptAnswerService.textOf(key, questionId,
+                                ((Number) row[4]).intValue(), (String) row[5]));
+                    }
+                    if (addAttempt(totals, key, answers, score)) {
+                        seen++;
+                    }
+                }
+                // Attempts not yet moved to answer rows
+                try (Stream<Object[]> rows = quizAttemptRepository.streamAnswersBefore(before)) {
+                    for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                        double score = row[1] != null ? ((Number) row[1]).doubleValue() : 0.0;
+                        if (addAttempt(totals, keys.get((Long) row[0]),
+                                AttemptAnswerService.parseLegacy((String) row[2]), score)) {
+                            seen++;
+                        }
+                    }
+                }
+                return seen;
+            });
+
+            // All counts and the marker commit together, so a failed backfill is simply run again
+            List<Counts> rows = new ArrayList<>(totals.values());
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < rows.size(); from += UPSERT_CHUNK) {
+                    upsert(rows.subList(from, Math.min(rows.size(), from + UPSERT_CHUNK)));
+                }
+                backfillMarkerRepository.save(new BackfillMarker(BACKFILL, LocalDateTime.now()));
+            });
+            System.out.println("Backfilled question stats for " + rows.size() + " questions from "
+                    + attempts + " attempts");
+        } catch (Exception e) {
+            System.err.println("Failed to backfill question stats: " + e.getMessage());
+        }
+    }
+
+    private void markBackfilled() {
+        transactionTemplate.executeWithoutResult(status ->
+                backfillMarkerRepository.save(new BackfillMarker(BACKFILL, LocalDateTime.now())));
+    }
+
+    private void upsert(List<Counts> rows) {
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, c) -> {
+            ps.setLong(1, c.questionId);
+            ps.setLong(2, c.quizId);
+            ps.setLong(3, c.attempts);
+            ps.setLong(4, c.correct);
+            ps.setLong(5, c.noAnswer);
+            ps.setLong(6, c.other);
+            for (int o = 0; o < QuestionStats.MAX_OPTIONS; o++) {
+                ps.setLong(7 + o, c.optionPicks[o]);
+            }
+            ps.setDouble(11, c.scoreSum);
+            ps.setDouble(12, c.scoreSqSum);
+            ps.setDouble(13, c.correctScoreSum);
+        });
+    }
+
+    private static boolean addAttempt(Map<Long, Counts> totals, AnswerKey key, Map<Long, String> answers,
+                                      double score) {
+        if (key == null || answers.isEmpty()) {
+            return false;
+        }
+        AnswerKey.Grade grade = key.grade(answers);
+        for (int i = 0; i < key.size(); i++) {
+            totals.computeIfAbsent(key.questionId(i), id -> new Counts(id, key.getQuizId())).add(grade, i, score);
+        }
+        return true;
+    }
+
+    private static final class Counts {
+
+        final long questionId;
+        final long quizId;
+        long attempts;
+        long correct;
+        long noAnswer;
+        long other;
+        final long[] optionPicks = new long[QuestionStats.MAX_OPTIONS];
+        double scoreSum;
+        double scoreSqSum;
+        double correctScoreSum;
+
+        Counts(long questionId, long quizId) {
+            this.questionId = questionId;
+            this.quizId = quizId;
+        }
+
+        void add(AnswerKey.Grade grade, int index, double score) {
+            attempts++;
+            scoreSum += score;
+            scoreSqSum += score * score;
+            if (grade.isCorrect(index)) {
+                correct++;
+                correctScoreSum += score;
+            }
+            int chosen = grade.chosenOption(index);
+            if (chosen == AnswerKey.NO_ANSWER) {
+                noAnswer++;
+            } else if (chosen == AnswerKey.OTHER_ANSWER || chosen >= QuestionStats.MAX_OPTIONS) {
+                other++;
+            } else {
+                optionPicks[chosen]++;
+            }
+        }
+    }
+}
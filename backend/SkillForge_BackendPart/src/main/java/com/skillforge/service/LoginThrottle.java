@@ -0,0 +1,153 @@
+package com.skillforge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token buckets for login attempts, one per email and one per client address.
+ *
+ * Every attempt takes a token from both buckets before any hashing happens and
+ * a successful login gives them back, so in effect only failures are
+ * throttled, while a burst of parallel guesses cannot all reach BCrypt. State
+ * is striped: each stripe is a small access-ordered map behind its own lock,
+ * which keeps contention low and memory bounded (least recently used keys
+ * are evicted first).
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+
+    private final Stripes emailBuckets;
+    private final Stripes clientBuckets;
+    private final Counter emailThrottled;
+    private final Counter clientThrottled;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${auth.throttle.email.capacity:5}") int emailCapacity,
+                         @Value("${auth.throttle.email.refill-seconds:60}") int emailRefillSeconds,
+                         @Value("${auth.throttle.client.capacity:20}") int clientCapacity,
+                         @Value("${auth.throttle.client.refill-seconds:6}") int clientRefillSeconds,
+                         @Value("${auth.throttle.max-tracked-keys:100000}") int maxTrackedKeys) {
+        int perStripe = Math.max(16, maxTrackedKeys / STRIPES);
+        this.emailBuckets = new Stripes(emailCapacity, emailRefillSeconds * 1000L, perStripe);
+        this.clientBuckets = new Stripes(clientCapacity, clientRefillSeconds * 1000L, perStripe);
+        this.emailThrottled = Counter.builder("auth.login.throttled").tag("scope", "email").register(meterRegistry);
+        this.clientThrottled = Counter.builder("auth.login.throttled").tag("scope", "client").register(meterRegistry);
+    }
+
+    /**
+     * Takes one token for the email and one for the client, or throws
+     * LoginThrottledException without taking any.
+     */
+    public void acquire(String email, String client) {
+        String emailKey = normalize(email);
+        long emailWait = emailBuckets.tryAcquire(emailKey);
+        if (emailWait > 0) {
+            emailThrottled.increment();
+            throw new LoginThrottledException("Too many failed login attempts for this account", seconds(emailWait));
+        }
+        if (client != null) {
+            long clientWait = clientBuckets.tryAcquire(client);
+            if (clientWait > 0) {
+                emailBuckets.refund(emailKey);
+                clientThrottled.increment();
+                throw new LoginThrottledException("Too many failed login attempts from this address", seconds(clientWait));
+            }
+        }
+    }
+
+    /** Returns the tokens taken by {@link #acquire} after a successful login. */
+    public void succeeded(String email, String client) {
+        emailBuckets.refund(normalize(email));
+        if (client != null) {
+            clientBuckets.refund(client);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long seconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+    }
+
+    private static final class Stripes {
+
+        private final int capacity;
+        private final long refillMillis;
+        private final Map<String, Bucket>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        Stripes(int capacity, long refillMillis, int maxPerStripe) {
+            this.capacity = Math.max(1, capacity);
+            this.refillMillis = Math.max(1, refillMillis);
+            this.stripes = new Map[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                        return size() > maxPerStripe;
+                    }
+                };
+            }
+        }
+
+        // 0 if a token was taken, otherwise milliseconds until one is available
+        long tryAcquire(String key) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            synchronized (stripe) {
+                long now = System.currentTimeMillis();
+                Bucket bucket = stripe.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket();
+                    bucket.tokens = capacity;
+                    bucket.refilledAt = now;
+                    stripe.put(key, bucket);
+                }
+                refill(bucket, now);
+                if (bucket.tokens >= 1.0) {
+                    bucket.tokens -= 1.0;
+                    return 0;
+                }
+                return (long) Math.ceil((1.0 - bucket.tokens) * refillMillis);
+            }
+        }
+
+        void refund(String key) {
+            Map<String, Bucket> stripe = stripeFor(key);
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+                if (bucket != null) {
+                    refill(bucket, System.currentTimeMillis());
+                    bucket.tokens = Math.min(capacity, bucket.tokens + 1.0);
+                }
+            }
+        }
+
+        private void refill(Bucket bucket, long now) {
+            long elapsed = now - bucket.refilledAt;
+            if (elapsed > 0) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (double) elapsed / refillMillis);
+                bucket.refilledAt = now;
+            }
+        }
+
+        private Map<String, Bucket> stripeFor(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        }
+    }
+}
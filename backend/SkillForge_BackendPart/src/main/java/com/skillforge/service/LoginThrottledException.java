@@ -0,0 +1,20 @@
+package com.skillforge.service;
+
+/**
+ * Thrown when a login or registration is refused before any password work is
+ * done: too many recent failures for the account or client, or the hashing
+ * pool is saturated.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
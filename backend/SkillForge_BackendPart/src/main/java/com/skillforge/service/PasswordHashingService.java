@@ -0,0 +1,146 @@
+package com.skillforge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool so password checks cannot occupy
+ * every servlet thread and CPU during a login burst. The pool has a bounded
+ * queue; when it is full the call is refused immediately with
+ * LoginThrottledException instead of piling up behind the others.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int strength;
+    private final String dummyHash;
+
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.bcrypt.strength:10}") int strength,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        this.strength = strength;
+
+        // Default to half the cores so hashing always leaves room for the rest of the API
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Compared against when the email is unknown, so that case costs the same as a wrong password
+        this.dummyHash = passwordEncoder.encode("skillforge-unknown-user");
+
+        this.matchesTimer = Timer.builder("auth.password.hashing").tag("op", "matches").register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hashing").tag("op", "encode").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected").register(meterRegistry);
+        this.rehashed = Counter.builder("auth.password.rehashed").register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    /** Checks a password; a null hash (unknown user) is checked against a dummy hash and never matches. */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null) {
+            return false;
+        }
+        if (encodedPassword == null) {
+            run(() -> passwordEncoder.matches(rawPassword, dummyHash), matchesTimer);
+            return false;
+        }
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * New hash for a password that just matched {@code encodedPassword}, or
+     * null when the stored hash already uses the configured work factor.
+     * Covers lowering the factor as well as raising it.
+     */
+    public String rehashIfNeeded(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        if (!passwordEncoder.upgradeEncoding(encodedPassword) && cost(encodedPassword) == strength) {
+            return null;
+        }
+        String upgraded = encode(rawPassword);
+        rehashed.increment();
+        return upgraded;
+    }
+
+    // "$2a$10$..." -> 10; -1 when the hash is not in BCrypt's modular format
+    private static int cost(String encodedPassword) {
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private <T> T run(Callable<T> task, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new LoginThrottledException("Too many sign-in requests, please try again shortly", 1);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new LoginThrottledException("Too many sign-in requests, please try again shortly", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while checking password", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
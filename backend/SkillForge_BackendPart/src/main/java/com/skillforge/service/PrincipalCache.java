@@ -0,0 +1,88 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Principals resolved by JwtAuthFilter, keyed by email, so an authenticated
+ * request does not need a users SELECT. Entries hold no password hash and
+ * are dropped explicitly whenever a user's email, role or existence changes;
+ * the TTL bounds staleness for changes made outside this application.
+ *
+ * Invalidation also records when the user changed, so JwtAuthFilter can stop
+ * trusting the role claim of tokens issued before that moment.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    // email -> epoch millis of the last change; kept as long as a token issued before it can live
+    private final Cache<String, Long> changedAt;
+
+    private volatile long allChangedAt;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+        this.changedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(tokenLifetimeMs))
+                .build();
+    }
+
+    /** Cached principal for the email, loading it with {@code loader} on a miss. */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return cache.get(email, key -> withoutPassword(loader.apply(key)));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            changedAt.put(email, System.currentTimeMillis());
+            cache.invalidate(email);
+        }
+    }
+
+    public void invalidateAll() {
+        allChangedAt = System.currentTimeMillis();
+        cache.invalidateAll();
+    }
+
+    /** True if the user may have changed after {@code issuedAt}, so claims from that time are stale. */
+    public boolean changedSince(String email, Date issuedAt) {
+        if (issuedAt == null) {
+            return true;
+        }
+        // iat is truncated to seconds, so a change within the issuing second also counts as stale
+        long issued = issuedAt.getTime();
+        Long changed = changedAt.getIfPresent(email);
+        return allChangedAt >= issued || (changed != null && changed >= issued);
+    }
+
+    private static UserDetails withoutPassword(UserDetails details) {
+        return User.withUsername(details.getUsername())
+                .password("")
+                .authorities(details.getAuthorities())
+                .accountExpired(!details.isAccountNonExpired())
+                .accountLocked(!details.isAccountNonLocked())
+                .credentialsExpired(!details.isCredentialsNonExpired())
+                .disabled(!details.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,401 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.entity.Quiz;
+import com.skillforge.entity.QuizGenerationJob;
+import com.skillforge.entity.User;
+import com.skillforge.repository.QuizGenerationJobRepository;
+import com.skillforge.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI quiz generation as background jobs, so no request thread waits on
+ * Gemini.
+ *
+ * A submission is saved as a QUEUED row and handed to a virtual thread,
+ * which waits for one of max-concurrent permits before calling Gemini.
+ * Submissions beyond max-queued pending jobs are refused. A QUIZ job saves
+ * the quiz and marks itself SUCCEEDED in one transaction, so a job that is
+ * cut short never leaves a quiz behind; jobs still QUEUED or RUNNING at
+ * startup are simply run again (up to MAX_RUNS times).
+ *
+ * Status is read by polling the job row, or pushed to SSE subscribers on
+ * each transition. Callers in this JVM can also wait on completion().
+ */
+@Service
+public class QuizGenerationService implements SmartInitializingSingleton {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_RUNS = 3;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private QuizGenerationJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private GeminiService geminiService;
+
+    @Autowired
+    private QuizPayloadCache quizPayloadCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String geminiApiKey;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long sseTimeoutMs;
+
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<Long, CompletableFuture<QuizGenerationJob>> completions = new ConcurrentHashMap<>();
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+
+    public QuizGenerationService(MeterRegistry meterRegistry,
+                                 @Value("${gemini.api.key:}") String geminiApiKey,
+                                 @Value("${quiz.generation.max-concurrent:8}") int maxConcurrent,
+                                 @Value("${quiz.generation.max-queued:200}") int maxQueued,
+                                 @Value("${quiz.generation.sse-timeout-ms:300000}") long sseTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.geminiApiKey = geminiApiKey;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(1, maxQueued);
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        // Jobs mostly wait on Gemini; the semaphore, not the pool, bounds how many call it at once
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("quiz-generation-", 0).factory());
+
+        Gauge.builder("quiz.generation.pending", pending, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("quiz.generation.running", permits, p -> this.maxConcurrent - p.availablePermits())
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("quiz.generation.wait").register(meterRegistry);
+    }
+
+    /** Queues a quiz to be generated and saved for the course; instructorId owns the new quiz. */
+    public QuizGenerationJob submitQuiz(Long requestedBy, String topic, Long instructorId, Long courseId,
+                                        Integer timeLimitMinutes, Integer questionCount) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("topic", topic);
+        params.put("instructorId", instructorId);
+        params.put("courseId", courseId);
+        params.put("timeLimitMinutes", timeLimitMinutes);
+        params.put("questionCount", questionCount);
+        return submit(QuizGenerationJob.Kind.QUIZ, requestedBy, courseId, params);
+    }
+
+    /** Queues generation of question text only, returned as the job result. */
+    public QuizGenerationJob submitPreview(Long requestedBy, String topic, Integer questionCount, String difficulty,
+                                           String courseContext, String prompt) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("topic", topic);
+        params.put("questionCount", questionCount);
+        params.put("difficulty", difficulty);
+        params.put("courseContext", courseContext);
+        params.put("prompt", prompt);
+        return submit(QuizGenerationJob.Kind.PREVIEW, requestedBy, null, params);
+    }
+
+    private QuizGenerationJob submit(QuizGenerationJob.Kind kind, Long requestedBy, Long courseId,
+                                     Map<String, Object> params) {
+        if (geminiApiKey == null || geminiApiKey.isEmpty()) {
+            throw new RuntimeException("Gemini API key is not configured. Please set gemini.api.key in application.properties");
+        }
+        if (pending.get() >= maxQueued) {
+            count("rejected");
+            throw new GenerationQueueFullException("Too many quizzes are being generated right now, please try again shortly");
+        }
+        QuizGenerationJob job = new QuizGenerationJob();
+        job.setKind(kind);
+        job.setStatus(QuizGenerationJob.Status.QUEUED);
+        job.setRequestedBy(requestedBy);
+        job.setCourseId(courseId);
+        try {
+            job.setRequestJson(MAPPER.writeValueAsString(params));
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid generation request: " + e.getMessage(), e);
+        }
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        dispatch(job.getId());
+        return job;
+    }
+
+    /** Completes with the finished job; for jobs not running in this JVM, with the row as it is now. */
+    public CompletableFuture<QuizGenerationJob> completion(Long jobId) {
+        CompletableFuture<QuizGenerationJob> future = completions.get(jobId);
+        if (future != null) {
+            return future;
+        }
+        return CompletableFuture.completedFuture(jobRepository.findById(jobId).orElse(null));
+    }
+
+    public Map<String, Object> get(Long jobId, String email) {
+        return describe(owned(jobId, email));
+    }
+
+    public QuizGenerationJob owned(Long jobId, String email) {
+        QuizGenerationJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        User user = email != null ? userRepository.findByEmail(email).orElse(null) : null;
+        if (user == null || !user.getId().equals(job.getRequestedBy())) {
+            throw new RuntimeException("Job not found");
+        }
+        return job;
+    }
+
+    /** JSON body of a succeeded job: the quiz (with answers) or the generated preview. */
+    public byte[] resultBody(QuizGenerationJob job) {
+        if (job.getStatus() != QuizGenerationJob.Status.SUCCEEDED) {
+            throw new RuntimeException(job.getError() != null ? job.getError() : "Job has not finished");
+        }
+        if (job.getKind() == QuizGenerationJob.Kind.PREVIEW) {
+            return job.getResultJson().getBytes(StandardCharsets.UTF_8);
+        }
+        QuizPayloadCache.Payload payload = quizPayloadCache.get(job.getResultQuizId(), false);
+        if (payload == null) {
+            throw new RuntimeException("Generated quiz no longer exists");
+        }
+        return payload.getBody();
+    }
+
+    /** Streams "status" events until the job finishes; the first event is the current status. */
+    public SseEmitter subscribe(Long jobId, String email) {
+        owned(jobId, email);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        List<SseEmitter> list = subscribers.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        emitter.onCompletion(() -> list.remove(emitter));
+        emitter.onTimeout(() -> list.remove(emitter));
+        emitter.onError(e -> list.remove(emitter));
+        // Read after registering, so a transition in between is sent at least once
+        QuizGenerationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job != null) {
+            send(emitter, describe(job), job.isFinished());
+        }
+        return emitter;
+    }
+
+    private void dispatch(Long jobId) {
+        // A job already running here keeps its future, which a request may be waiting on
+        if (completions.putIfAbsent(jobId, new CompletableFuture<>()) != null) {
+            return;
+        }
+        pending.incrementAndGet();
+        executor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        Timer.Sample wait = Timer.start();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            // Shutting down; the job stays QUEUED and runs after the restart
+            pending.decrementAndGet();
+            return;
+        }
+        wait.stop(waitTimer);
+        try {
+            execute(jobId);
+        } catch (Exception e) {
+            System.err.println("Quiz generation job " + jobId + " failed unexpectedly: " + e.getMessage());
+        } finally {
+            permits.release();
+            pending.decrementAndGet();
+        }
+    }
+
+    private void execute(Long jobId) {
+        QuizGenerationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            finished(jobId, job);
+            return;
+        }
+        if (job.getAttempts() >= MAX_RUNS) {
+            fail(jobId, "Generation was interrupted too many times");
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.markRunning(jobId, startedAt));
+        if (claimed == null || claimed == 0) {
+            // Finished by another run in the meantime
+            finished(jobId, jobRepository.findById(jobId).orElse(null));
+            return;
+        }
+        job.setStatus(QuizGenerationJob.Status.RUNNING);
+        job.setStartedAt(startedAt);
+        job.setAttempts(job.getAttempts() + 1);
+        publish(job);
+
+        Timer.Sample sample = Timer.start();
+        String outcome = "success";
+        try {
+            JsonNode params = MAPPER.readTree(job.getRequestJson());
+            if (job.getKind() == QuizGenerationJob.Kind.QUIZ) {
+                Quiz quiz = quizService.buildQuizFromTopic(text(params, "topic"),
+                        params.path("instructorId").asLong(), geminiApiKey, params.path("courseId").asLong(),
+                        integer(params, "timeLimitMinutes"), integer(params, "questionCount"));
+                // The quiz and the job's success commit together, so a rerun cannot create a second quiz
+                transactionTemplate.executeWithoutResult(status -> {
+                    Quiz saved = quizService.saveGeneratedQuiz(quiz);
+                    if (jobRepository.markFinished(jobId, QuizGenerationJob.Status.SUCCEEDED, saved.getId(), null,
+                            null, LocalDateTime.now()) == 0) {
+                        // Another run already finished the job; drop this quiz with the transaction
+                        status.setRollbackOnly();
+                    }
+                });
+            } else {
+                Map<String, Object> preview = geminiService.generateQuizPreview(text(params, "topic"),
+                        integer(params, "questionCount"), text(params, "difficulty"), text(params, "courseContext"),
+                        text(params, "prompt"));
+                String resultJson = MAPPER.writeValueAsString(preview);
+                transactionTemplate.executeWithoutResult(status -> jobRepository.markFinished(jobId,
+                        QuizGenerationJob.Status.SUCCEEDED, null, resultJson, null, LocalDateTime.now()));
+            }
+        } catch (Exception e) {
+            if (stopping) {
+                // Left RUNNING; it is run again after the restart
+                outcome = "interrupted";
+                return;
+            }
+            outcome = "failure";
+            System.err.println("Quiz generation job " + jobId + " failed: " + e.getMessage());
+            fail(jobId, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            sample.stop(Timer.builder("quiz.generation.run").tag("kind", job.getKind().name())
+                    .tag("outcome", outcome).register(meterRegistry));
+        }
+        if (outcome.equals("success")) {
+            finished(jobId, jobRepository.findById(jobId).orElse(null));
+        }
+    }
+
+    private void fail(Long jobId, String error) {
+        String message = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        transactionTemplate.executeWithoutResult(status -> jobRepository.markFinished(jobId,
+                QuizGenerationJob.Status.FAILED, null, null, message, LocalDateTime.now()));
+        finished(jobId, jobRepository.findById(jobId).orElse(null));
+    }
+
+    private void finished(Long jobId, QuizGenerationJob job) {
+        if (job != null) {
+            count(job.getStatus() == QuizGenerationJob.Status.SUCCEEDED ? "succeeded" : "failed");
+            publish(job);
+        }
+        CompletableFuture<QuizGenerationJob> future = completions.remove(jobId);
+        if (future != null) {
+            future.complete(job);
+        }
+    }
+
+    private void publish(QuizGenerationJob job) {
+        boolean last = job.isFinished();
+        List<SseEmitter> list = last ? subscribers.remove(job.getId()) : subscribers.get(job.getId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        Map<String, Object> view = describe(job);
+        for (SseEmitter emitter : list) {
+            send(emitter, view, last);
+        }
+    }
+
+    private static void send(SseEmitter emitter, Map<String, Object> view, boolean last) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(view));
+            if (last) {
+                emitter.complete();
+            }
+        } catch (Exception e) {
+            // Client went away; its onError/onCompletion callback unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+
+    public Map<String, Object> describe(QuizGenerationJob job) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("jobId", job.getId());
+        view.put("kind", job.getKind());
+        view.put("status", job.getStatus());
+        view.put("courseId", job.getCourseId());
+        view.put("quizId", job.getResultQuizId());
+        view.put("error", job.getError());
+        view.put("createdAt", job.getCreatedAt());
+        view.put("startedAt", job.getStartedAt());
+        view.put("finishedAt", job.getFinishedAt());
+        return view;
+    }
+
+    private void count(String outcome) {
+        Counter.builder("quiz.generation.jobs").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+
+    private static String text(JsonNode params, String field) {
+        JsonNode node = params.path(field);
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+
+    private static Integer integer(JsonNode params, String field) {
+        JsonNode node = params.path(field);
+        return node.isMissingNode() || node.isNull() ? null : node.asInt();
+    }
+
+    // Jobs left by the previous run are queued again, oldest first. Runs once all beans exist but
+    // before the web server starts, so no job submitted by this JVM can be picked up twice.
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<QuizGenerationJob> open = jobRepository.findByStatusInOrderByIdAsc(
+                    List.of(QuizGenerationJob.Status.QUEUED, QuizGenerationJob.Status.RUNNING));
+            for (QuizGenerationJob job : open) {
+                dispatch(job.getId());
+            }
+            if (!open.isEmpty()) {
+                System.out.println("Resumed " + open.size() + " quiz generation jobs");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to resume quiz generation jobs: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,160 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.skillforge.entity.Question;
+import com.skillforge.entity.Quiz;
+import com.skillforge.event.CourseCatalogChangedEvent;
+import com.skillforge.event.QuizChangedEvent;
+import com.skillforge.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quiz JSON as served by GET /api/quizzes/{id}, rendered once per quiz and
+ * kept as bytes: a full variant and a student variant without correct
+ * answers, each with a strong ETag derived from its content. Entries are
+ * dropped when the quiz changes or its course is deleted, so the next
+ * request renders the new version.
+ */
+@Component
+public class QuizPayloadCache {
+
+    public static final class Payload {
+
+        private final byte[] body;
+        private final String etag;
+
+        Payload(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    private static final class Payloads {
+
+        final Payload full;
+        final Payload student;
+        final Long courseId;
+
+        Payloads(Payload full, Payload student, Long courseId) {
+            this.full = full;
+            this.student = student;
+            this.courseId = courseId;
+        }
+    }
+
+    private final QuizRepository quizRepository;
+    private final ObjectMapper objectMapper;
+    private final LoadingCache<Long, Payloads> cache;
+
+    public QuizPayloadCache(QuizRepository quizRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${quiz.payload-cache.max-size:2000}") long maxSize,
+                            @Value("${quiz.payload-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.quizRepository = quizRepository;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quiz-payloads");
+    }
+
+    /** Rendered quiz, without correct answers when {@code forStudent}; null if the quiz does not exist. */
+    public Payload get(Long quizId, boolean forStudent) {
+        if (quizId == null) {
+            return null;
+        }
+        Payloads payloads = cache.get(quizId);
+        if (payloads == null) {
+            return null;
+        }
+        return forStudent ? payloads.student : payloads.full;
+    }
+
+    public void invalidate(Long quizId) {
+        if (quizId != null) {
+            cache.invalidate(quizId);
+        }
+    }
+
+    private Payloads load(Long quizId) throws Exception {
+        Quiz quiz = quizRepository.findWithQuestionsById(quizId).orElse(null);
+        if (quiz == null) {
+            return null;
+        }
+        return new Payloads(render(quiz, true), render(quiz, false),
+                quiz.getCourse() != null ? quiz.getCourse().getId() : null);
+    }
+
+    // Same fields as the serialized Quiz entity
+    private Payload render(Quiz quiz, boolean withAnswers) throws Exception {
+        List<Map<String, Object>> questions = new ArrayList<>(quiz.getQuestions().size());
+        for (Question question : quiz.getQuestions()) {
+            Map<String, Object> q = new LinkedHashMap<>();
+            q.put("id", question.getId());
+            q.put("prompt", question.getPrompt());
+            q.put("optionsJson", question.getOptionsJson());
+            if (withAnswers) {
+                q.put("correctAnswer", question.getCorrectAnswer());
+            }
+            q.put("type", question.getType());
+            questions.add(q);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", quiz.getId());
+        body.put("title", quiz.getTitle());
+        body.put("createdAt", quiz.getCreatedAt());
+        body.put("timeLimitMinutes", quiz.getTimeLimitMinutes());
+        body.put("questions", questions);
+
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        return new Payload(bytes, "\"" + quiz.getId() + "-" + digest(bytes) + "\"");
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        invalidate(event.getQuizId());
+    }
+
+    // Deleting a course deletes its quizzes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        if (event.getType() == CourseCatalogChangedEvent.Type.DELETED && event.getCourseId() != null) {
+            cache.asMap().values().removeIf(payloads -> event.getCourseId().equals(payloads.courseId));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -13,6 +14,7 @@ import com.skillforge.dto.QuestionDTO;
 import com.skillforge.entity.Question;
 import com.skillforge.entity.Quiz;
 import com.skillforge.entity.User;
+import com.skillforge.event.QuizChangedEvent;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.QuestionRepository;
 import com.skillforge.repository.QuizRepository;
@@ -36,6 +38,9 @@ public class QuizService {
     @Autowired
     private GeminiService geminiService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     // Get userId from email
@@ -79,12 +84,18 @@ public class QuizService {
         }
 
         quiz.setQuestions(questionList);
-        return quizRepository.save(quiz);
+        return saveQuiz(quiz);
     }
 
     // ✅ AI Quiz generation
     public Quiz generateQuizFromTopic(String topic, Long instructorId, String geminiApiKey,
                                       Long courseId, Integer timeLimit, Integer questionCount) throws Exception {
+        return saveQuiz(buildQuizFromTopic(topic, instructorId, geminiApiKey, courseId, timeLimit, questionCount));
+    }
+
+    // Calls Gemini and builds the quiz without saving it, so callers can save it in their own transaction
+    public Quiz buildQuizFromTopic(String topic, Long instructorId, String geminiApiKey,
+                                   Long courseId, Integer timeLimit, Integer questionCount) {
 
         if (geminiApiKey == null || geminiApiKey.isEmpty()) {
             throw new RuntimeException("Gemini API key is not configured. Please set gemini.api.key in application.properties");
@@ -92,7 +103,7 @@ public class QuizService {
 
         String jsonResponse;
         try {
-            jsonResponse = geminiService.generateQuizJSON(topic, questionCount, geminiApiKey);
+            jsonResponse = geminiService.generateQuizJSON(topic, questionCount);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate quiz from Gemini API: " + e.getMessage(), e);
         }
@@ -163,7 +174,18 @@ public class QuizService {
         }
 
         quiz.setQuestions(questionList);
-        return quizRepository.save(quiz);
+        return quiz;
+    }
+
+    public Quiz saveGeneratedQuiz(Quiz quiz) {
+        return saveQuiz(quiz);
+    }
+
+    private Quiz saveQuiz(Quiz quiz) {
+        Quiz saved = quizRepository.save(quiz);
+        eventPublisher.publishEvent(new QuizChangedEvent(saved.getId(),
+                saved.getCourse() != null ? saved.getCourse().getId() : null, QuizChangedEvent.Type.CREATED));
+        return saved;
     }
 
     private String toJson(Object obj) {
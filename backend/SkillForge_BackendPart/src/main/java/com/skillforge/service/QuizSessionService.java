@@ -0,0 +1,496 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.dto.QuizScoreResponse;
+import com.skillforge.entity.Quiz;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.QuizSession;
+import com.skillforge.entity.User;
+import com.skillforge.repository.QuizAttemptRepository;
+import com.skillforge.repository.QuizRepository;
+import com.skillforge.repository.QuizSessionRepository;
+import com.skillforge.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-side quiz sessions: start, autosave, finish.
+ *
+ * Open sessions are held in memory. Autosaves only update the in-memory
+ * answers and bump a revision; a scheduled flush writes every session
+ * changed since the last flush in one JDBC batch, so write load depends on
+ * the flush interval rather than on how often clients save. Sessions still
+ * open at startup are reloaded from their last flush before the server
+ * starts taking requests.
+ *
+ * A timed session gets a deadline on a hashed timer wheel (time limit plus
+ * a grace period for in-flight saves); when it fires, the saved answers are
+ * submitted as the attempt. Finishing and expiry race through one future,
+ * so a session is submitted exactly once.
+ */
+@Service
+public class QuizSessionService implements SmartInitializingSingleton {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_ANSWER_LENGTH = 1000;
+    private static final int FLUSH_CHUNK = 500;
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    @Autowired
+    private QuizSessionRepository sessionRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuizSubmissionService submissionService;
+
+    @Autowired
+    private AttemptAnswerService attemptAnswers;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final class Live {
+
+        final Long id;
+        final Long quizId;
+        final Long studentId;
+        final String email;
+        final LocalDateTime startedAt;
+        final LocalDateTime expiresAt;
+        final long deadlineMillis; // expiresAt plus grace, Long.MAX_VALUE when untimed
+        final Map<Long, String> answers = new ConcurrentHashMap<>();
+        final AtomicLong revision = new AtomicLong();
+        volatile long flushedRevision;
+        final AtomicReference<CompletableFuture<QuizScoreResponse>> closing = new AtomicReference<>();
+        volatile TimerWheel.Timeout timeout;
+        // Set once the attempt is written; a retry after a failed markSubmitted reuses it
+        volatile QuizScoreResponse submitted;
+        volatile String submittedAnswersJson;
+        int expiryFailures; // only touched by expiry tasks, which never overlap
+
+        Live(QuizSession row, String email, long graceMillis) {
+            this.id = row.getId();
+            this.quizId = row.getQuizId();
+            this.studentId = row.getStudentId();
+            this.email = email;
+            this.startedAt = row.getStartedAt();
+            this.expiresAt = row.getExpiresAt();
+            this.deadlineMillis = expiresAt != null ? toMillis(expiresAt) + graceMillis : Long.MAX_VALUE;
+        }
+    }
+
+    private final Map<Long, Live> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionByStudentQuiz = new ConcurrentHashMap<>();
+
+    private final long graceMillis;
+    private final long retryMillis;
+    private final long maxRetryMillis;
+    private final ExecutorService expiryExecutor;
+    // Released once the application is ready; see afterSingletonsInstantiated
+    private final CountDownLatch serving = new CountDownLatch(1);
+    private final TimerWheel timerWheel;
+
+    private final Counter autosaves;
+    private final Counter flushedRows;
+    private final Counter expired;
+    private final Timer flushTimer;
+
+    public QuizSessionService(MeterRegistry meterRegistry,
+                              @Value("${quiz.sessions.tick-ms:1000}") long tickMs,
+                              @Value("${quiz.sessions.wheel-size:512}") int wheelSize,
+                              @Value("${quiz.sessions.grace-ms:5000}") long graceMillis,
+                              @Value("${quiz.sessions.expiry-retry-ms:10000}") long retryMillis,
+                              @Value("${quiz.sessions.expiry-retry-max-ms:60000}") long maxRetryMillis) {
+        this.graceMillis = graceMillis;
+        this.retryMillis = Math.max(1, retryMillis);
+        this.maxRetryMillis = Math.max(this.retryMillis, maxRetryMillis);
+        // Expiry submissions wait on the attempt group commit; at the end of an exam many expire at once
+        this.expiryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("quiz-session-expiry-", 0).factory());
+        this.timerWheel = new TimerWheel("quiz-session-timer", tickMs, wheelSize, expiryExecutor);
+
+        Gauge.builder("quiz.sessions.open", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("quiz.sessions.timers", timerWheel, TimerWheel::pending).register(meterRegistry);
+        this.autosaves = Counter.builder("quiz.sessions.autosaves").register(meterRegistry);
+        this.flushedRows = Counter.builder("quiz.sessions.flushed").register(meterRegistry);
+        this.expired = Counter.builder("quiz.sessions.expired").register(meterRegistry);
+        this.flushTimer = Timer.builder("quiz.sessions.flush").register(meterRegistry);
+    }
+
+    /** Opens a session for the student, or returns the one already open for this quiz. */
+    public Map<String, Object> start(Long quizId, String email) {
+        if (quizId == null) {
+            throw new RuntimeException("Missing quizId");
+        }
+        User student = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+        Long sessionId = sessionByStudentQuiz.computeIfAbsent(student.getId() + ":" + quizId,
+                k -> openSession(quizId, student).id);
+        Live live = sessions.get(sessionId);
+        if (live == null) {
+            // Submitted between the lookup and now
+            return start(quizId, email);
+        }
+        return describe(live);
+    }
+
+    private Live openSession(Long quizId, User student) {
+        QuizSession row = sessionRepository
+                .findFirstByStudentIdAndQuizIdAndStatusOrderByIdDesc(student.getId(), quizId, QuizSession.Status.IN_PROGRESS)
+                .orElse(null);
+        if (row == null) {
+            Quiz quiz = quizRepository.findById(quizId).orElseThrow(() -> new RuntimeException("Quiz not found"));
+            LocalDateTime now = LocalDateTime.now();
+            row = new QuizSession();
+            row.setQuizId(quizId);
+            row.setStudentId(student.getId());
+            row.setStatus(QuizSession.Status.IN_PROGRESS);
+            row.setStartedAt(now);
+            if (quiz.getTimeLimitMinutes() != null && quiz.getTimeLimitMinutes() > 0) {
+                row.setExpiresAt(now.plusMinutes(quiz.getTimeLimitMinutes()));
+            }
+            row = sessionRepository.save(row);
+        }
+        return activate(row, student.getEmail());
+    }
+
+    private Live activate(QuizSession row, String email) {
+        Live live = new Live(row, email, graceMillis);
+        if (row.getAnswersJson() != null) {
+            live.answers.putAll(AttemptAnswerService.parseLegacy(row.getAnswersJson()));
+        }
+        sessions.put(live.id, live);
+        if (live.deadlineMillis != Long.MAX_VALUE) {
+            scheduleExpiry(live, live.deadlineMillis - System.currentTimeMillis());
+        }
+        return live;
+    }
+
+    private void scheduleExpiry(Live live, long delayMillis) {
+        live.timeout = timerWheel.schedule(delayMillis, () -> expire(live));
+    }
+
+    /** Merges answers into the open session; blank answers clear a question. Nothing is written yet. */
+    public Map<String, Object> autosave(Long sessionId, String email, Map<Long, String> answers) {
+        Live live = openOwned(sessionId, email);
+        merge(live, answers);
+        autosaves.increment();
+        return describe(live);
+    }
+
+    /** Submits the session with any last answers; after expiry, returns the auto-submitted result. */
+    public QuizScoreResponse finish(Long sessionId, String email, Map<Long, String> answers, String studentFeedback) {
+        Live live = sessions.get(sessionId);
+        if (live == null) {
+            return submittedResult(sessionId, email);
+        }
+        checkOwner(live, email);
+        if (live.closing.get() == null && live.submitted == null && System.currentTimeMillis() < live.deadlineMillis) {
+            merge(live, answers);
+        }
+        try {
+            return close(live, studentFeedback, false).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /** Finishes the student's open session for the quiz, as the direct submit of a timed quiz; null if none is open. */
+    public QuizScoreResponse finishOpen(Long quizId, Long studentId, String email, Map<Long, String> answers,
+                                        String studentFeedback) {
+        Long sessionId = sessionByStudentQuiz.get(studentId + ":" + quizId);
+        return sessionId != null ? finish(sessionId, email, answers, studentFeedback) : null;
+    }
+
+    public Map<String, Object> get(Long sessionId, String email) {
+        Live live = sessions.get(sessionId);
+        if (live != null) {
+            checkOwner(live, email);
+            return describe(live);
+        }
+        QuizSession row = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+        checkOwner(row, email);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("sessionId", row.getId());
+        view.put("quizId", row.getQuizId());
+        view.put("status", row.getStatus());
+        view.put("startedAt", row.getStartedAt());
+        view.put("expiresAt", row.getExpiresAt());
+        view.put("attemptId", row.getAttemptId());
+        view.put("autoSubmitted", Boolean.TRUE.equals(row.getAutoSubmitted()));
+        return view;
+    }
+
+    private Live openOwned(Long sessionId, String email) {
+        Live live = sessions.get(sessionId);
+        if (live == null) {
+            QuizSession row = sessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new RuntimeException("Session not found"));
+            checkOwner(row, email);
+            throw new RuntimeException("Session already submitted");
+        }
+        checkOwner(live, email);
+        if (live.closing.get() != null || live.submitted != null || System.currentTimeMillis() >= live.deadlineMillis) {
+            throw new RuntimeException("Time is up for this quiz");
+        }
+        return live;
+    }
+
+    private void merge(Live live, Map<Long, String> answers) {
+        if (answers == null || answers.isEmpty()) {
+            return;
+        }
+        // Only questions of this quiz are kept, so a client cannot grow the session without bound
+        AnswerKey key = answerKeyCache.get(live.quizId);
+        for (Map.Entry<Long, String> entry : answers.entrySet()) {
+            if (entry.getKey() == null || key.indexOf(entry.getKey()) < 0) {
+                continue;
+            }
+            String answer = entry.getValue();
+            if (answer == null || answer.isBlank()) {
+                live.answers.remove(entry.getKey());
+            } else {
+                live.answers.put(entry.getKey(),
+                        answer.length() > MAX_ANSWER_LENGTH ? answer.substring(0, MAX_ANSWER_LENGTH) : answer);
+            }
+        }
+        live.revision.incrementAndGet();
+    }
+
+    private void expire(Live live) {
+        try {
+            serving.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (sessions.get(live.id) != live) {
+            return;
+        }
+        expired.increment();
+        close(live, null, true).exceptionally(e -> {
+            // Typically ingestion backpressure at the end of an exam. The session is never given up on:
+            // dropped from memory it would stay IN_PROGRESS and could no longer be finished. Retries back
+            // off up to maxRetryMillis; finish() can still close it meanwhile.
+            int failures = ++live.expiryFailures;
+            long delay = Math.min(maxRetryMillis, retryMillis << Math.min(failures - 1, MAX_BACKOFF_SHIFT));
+            System.err.println("Failed to auto-submit quiz session " + live.id + " (attempt " + failures
+                    + ", retrying in " + delay + " ms): " + e.getMessage());
+            scheduleExpiry(live, delay);
+            return null;
+        });
+    }
+
+    private CompletableFuture<QuizScoreResponse> close(Live live, String studentFeedback, boolean auto) {
+        CompletableFuture<QuizScoreResponse> mine = new CompletableFuture<>();
+        CompletableFuture<QuizScoreResponse> running = live.closing.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+        TimerWheel.Timeout timeout = live.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        try {
+            QuizScoreResponse response = live.submitted;
+            if (response == null) {
+                Map<Long, String> answers = new HashMap<>(live.answers);
+                String json = MAPPER.writeValueAsString(answers);
+                response = submissionService.submit(live.quizId, live.studentId, answers, studentFeedback);
+                live.submittedAnswersJson = json;
+                live.submitted = response;
+            }
+            QuizScoreResponse graded = response;
+            String answersJson = live.submittedAnswersJson;
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.markSubmitted(live.id, answersJson,
+                    LocalDateTime.now(), auto, graded.getAttemptId()));
+            sessions.remove(live.id, live);
+            sessionByStudentQuiz.remove(live.studentId + ":" + live.quizId, live.id);
+            mine.complete(graded);
+        } catch (Exception e) {
+            // Reopen so the student (or the retry) can submit again
+            live.closing.set(null);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    private QuizScoreResponse submittedResult(Long sessionId, String email) {
+        QuizSession row = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+        checkOwner(row, email);
+        if (row.getStatus() != QuizSession.Status.SUBMITTED || row.getAttemptId() == null) {
+            throw new RuntimeException("Session is not open");
+        }
+        QuizAttempt attempt = quizAttemptRepository.findById(row.getAttemptId())
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        QuizScoreResponse response = new QuizScoreResponse();
+        response.setAttemptId(attempt.getId());
+        response.setScore(attempt.getScore());
+        response.setFeedback(attempt.getFeedback());
+        try {
+            AnswerKey.Grade grade = answerKeyCache.get(row.getQuizId()).grade(attemptAnswers.answersOf(attempt));
+            response.setTotalQuestions(grade.getTotal());
+            response.setCorrectAnswers(grade.getCorrect());
+            response.setWrongAnswers(grade.getWrongAnswers());
+        } catch (Exception ignored) {
+            // Quiz changed or removed since; the stored score still stands
+        }
+        return response;
+    }
+
+    private static void checkOwner(Live live, String email) {
+        if (email == null || !email.equals(live.email)) {
+            throw new RuntimeException("Session not found");
+        }
+    }
+
+    private void checkOwner(QuizSession row, String email) {
+        User user = email != null ? userRepository.findByEmail(email).orElse(null) : null;
+        if (user == null || !user.getId().equals(row.getStudentId())) {
+            throw new RuntimeException("Session not found");
+        }
+    }
+
+    private Map<String, Object> describe(Live live) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("sessionId", live.id);
+        view.put("quizId", live.quizId);
+        view.put("status", QuizSession.Status.IN_PROGRESS);
+        view.put("startedAt", live.startedAt);
+        view.put("expiresAt", live.expiresAt);
+        view.put("remainingSeconds", live.expiresAt != null
+                ? Math.max(0L, (toMillis(live.expiresAt) - System.currentTimeMillis()) / 1000) : null);
+        view.put("answers", new HashMap<>(live.answers));
+        return view;
+    }
+
+    // Writes every session changed since its last flush, as one batch per chunk
+    @Scheduled(initialDelayString = "${quiz.sessions.flush-interval-ms:5000}",
+            fixedDelayString = "${quiz.sessions.flush-interval-ms:5000}")
+    public void flush() {
+        Timer.Sample sample = Timer.start();
+        try {
+            List<Live> dirty = new ArrayList<>();
+            List<Long> revisions = new ArrayList<>();
+            List<Object[]> params = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Live live : sessions.values()) {
+                long revision = live.revision.get();
+                if (revision == live.flushedRevision || live.closing.get() != null) {
+                    continue;
+                }
+                dirty.add(live);
+                revisions.add(revision);
+                params.add(new Object[] { MAPPER.writeValueAsString(new HashMap<>(live.answers)), now, live.id });
+            }
+            for (int from = 0; from < params.size(); from += FLUSH_CHUNK) {
+                int to = Math.min(params.size(), from + FLUSH_CHUNK);
+                jdbcTemplate.batchUpdate("UPDATE quiz_sessions SET answers_json = ?, saved_at = ? "
+                        + "WHERE id = ? AND status = 'IN_PROGRESS'", params.subList(from, to));
+                for (int i = from; i < to; i++) {
+                    dirty.get(i).flushedRevision = revisions.get(i);
+                }
+                flushedRows.increment(to - from);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to flush quiz sessions: " + e.getMessage());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * Reloads sessions left open by the previous run. Runs once all beans
+     * exist but before the web server starts, so start() cannot activate a
+     * second session for a row that is about to be resumed. Expiry waits for
+     * the application to be ready, so no session is submitted before the
+     * other startup work (attempt id alignment, backfills) has finished;
+     * ones already past their deadline expire right after.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<QuizSession> open = sessionRepository.findByStatus(QuizSession.Status.IN_PROGRESS);
+            if (open.isEmpty()) {
+                return;
+            }
+            Set<Long> studentIds = new HashSet<>();
+            for (QuizSession row : open) {
+                studentIds.add(row.getStudentId());
+            }
+            Map<Long, String> emails = new HashMap<>();
+            for (User user : userRepository.findAllById(studentIds)) {
+                emails.put(user.getId(), user.getEmail());
+            }
+            for (QuizSession row : open) {
+                Live live = activate(row, emails.get(row.getStudentId()));
+                sessionByStudentQuiz.put(live.studentId + ":" + live.quizId, live.id);
+            }
+            System.out.println("Resumed " + open.size() + " open quiz sessions");
+        } catch (Exception e) {
+            System.err.println("Failed to resume quiz sessions: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startExpiring() {
+        serving.countDown();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timerWheel.stop();
+        flush();
+        expiryExecutor.shutdown();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,80 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.QuizScoreResponse;
+import com.skillforge.entity.Quiz;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.User;
+import com.skillforge.event.QuizAttemptSubmittedEvent;
+import com.skillforge.repository.QuizRepository;
+import com.skillforge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Grades a set of answers and records the attempt. Shared by direct
+ * submissions and by quiz sessions (finished or expired).
+ */
+@Service
+public class QuizSubmissionService {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SentimentScorer sentimentScorer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AttemptIngestionService attemptIngestion;
+
+    @Autowired
+    private AttemptAnswerService attemptAnswers;
+
+    public QuizScoreResponse submit(Long quizId, Long studentId, Map<Long, String> answers, String studentFeedback) {
+        // Grading reads only the cached answer key; the quiz row is referenced, not loaded
+        AnswerKey key = answerKeyCache.get(quizId);
+        Quiz quiz = quizRepository.getReferenceById(key.getQuizId());
+
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+
+        AnswerKey.Grade grade = key.grade(answers);
+        double score = grade.getScore();
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setQuiz(quiz);
+        attempt.setStudent(student);
+        attempt.setScore(score);
+        attempt.setAttemptedAt(LocalDateTime.now());
+        attempt.setFeedback(studentFeedback);
+        if (studentFeedback != null && !studentFeedback.trim().isEmpty()) {
+            attempt.setFeedbackSentiment(sentimentScorer.score(studentFeedback));
+        }
+
+        // Committed as part of a batched insert before the score is returned
+        QuizAttempt saved = attemptIngestion.submit(attempt, attemptAnswers.toRows(key, grade, answers), key, grade);
+        eventPublisher.publishEvent(new QuizAttemptSubmittedEvent(saved.getId(), key.getQuizId(),
+                key.getCourseId(), studentId, score, saved.getAttemptedAt()));
+
+        QuizScoreResponse response = new QuizScoreResponse();
+        response.setAttemptId(saved.getId());
+        response.setScore(score);
+        response.setTotalQuestions(grade.getTotal());
+        response.setCorrectAnswers(grade.getCorrect());
+        response.setFeedback(studentFeedback);
+        response.setWrongAnswers(grade.getWrongAnswers());
+        return response;
+    }
+}
@@ -0,0 +1,76 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillforge.event.CourseCatalogChangedEvent;
+import com.skillforge.event.EnrollmentChangedEvent;
+import com.skillforge.event.QuizAttemptSubmittedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-student top-N recommendation result, stored as course ids so cached
+ * entries never hold detached entities. An entry is dropped only when
+ * something that feeds the score changes: the student's own attempts or
+ * enrollments, or the course catalog (which affects every student).
+ * Aggregate drift from other students' activity is bounded by the TTL.
+ *
+ * Invalidation runs after the publishing transaction commits, so a
+ * concurrent miss cannot re-cache a result computed from pre-commit data.
+ */
+@Component
+public class RecommendationCache {
+
+    private final Cache<Long, List<Long>> cache;
+
+    public RecommendationCache(MeterRegistry meterRegistry,
+                               @Value("${recommendation.cache.max-students:10000}") long maxStudents,
+                               @Value("${recommendation.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxStudents)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        // cache.gets / cache.puts / cache.evictions tagged cache=recommendations
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recommendations");
+    }
+
+    public List<Long> get(Long studentId) {
+        return cache.getIfPresent(studentId);
+    }
+
+    public void put(Long studentId, List<Long> courseIds) {
+        cache.put(studentId, List.copyOf(courseIds));
+    }
+
+    public void invalidate(Long studentId) {
+        if (studentId != null) {
+            cache.invalidate(studentId);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptSubmitted(QuizAttemptSubmittedEvent event) {
+        invalidate(event.getStudentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        invalidate(event.getStudentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        invalidateAll();
+    }
+}
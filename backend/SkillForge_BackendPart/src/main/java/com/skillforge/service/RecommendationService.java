@@ -1,25 +1,26 @@
 package com.skillforge.service;
 
 import com.skillforge.entity.Course;
+import com.skillforge.entity.CourseAggregate;
 import com.skillforge.entity.CourseEnrollment;
 import com.skillforge.entity.QuizAttempt;
-import com.skillforge.entity.Feedback;
 import com.skillforge.repository.CourseEnrollmentRepository;
 import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.QuizAttemptRepository;
-import com.skillforge.repository.FeedbackRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class RecommendationService {
@@ -34,29 +35,68 @@ public class RecommendationService {
     private CourseEnrollmentRepository enrollmentRepository;
 
     @Autowired
-    private FeedbackRepository feedbackRepository;
+    private CourseAggregateService courseAggregateService;
+
+    @Autowired
+    private CourseSimilarityIndex similarityIndex;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final int MAX_RECOMMENDATIONS = 10;
+    private static final int SIMILAR_CANDIDATES = 20;
+    private static final double SIMILARITY_WEIGHT = 30.0;
+    private static final double REVIEW_THRESHOLD = 70.0;
 
     public List<Course> recommendForStudent(Long studentId) {
+        return recommendForStudent(studentId, null);
+    }
+
+    /** Same as {@link #recommendForStudent(Long)}, reading the student's history from a shared loader. */
+    public List<Course> recommendForStudent(Long studentId, StudentDataLoader.StudentData data) {
         if (studentId == null) {
             return new ArrayList<>();
         }
 
-        // Fetch attempts with quiz->course eagerly
-        List<QuizAttempt> attempts;
-        try {
-            attempts = quizAttemptRepository.findByStudentIdWithQuizCourse(studentId);
-        } catch (Throwable t) {
-            try {
-                attempts = quizAttemptRepository.findByStudentId(studentId);
-            } catch (Throwable t2) {
-                attempts = new ArrayList<>();
+        List<Long> cachedIds = recommendationCache.get(studentId);
+        if (cachedIds != null) {
+            Map<Long, Course> byId = new HashMap<>();
+            for (Course course : courseRepository.findAllById(cachedIds)) {
+                byId.put(course.getId(), course);
+            }
+            List<Course> cached = new ArrayList<>(cachedIds.size());
+            for (Long id : cachedIds) {
+                Course course = byId.get(id);
+                if (course != null) {
+                    cached.add(course);
+                }
             }
+            return cached;
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Course> recommendations = computeRecommendations(studentId, data);
+        sample.stop(meterRegistry.timer("recommendation.recompute"));
+
+        List<Long> ids = new ArrayList<>(recommendations.size());
+        for (Course course : recommendations) {
+            ids.add(course.getId());
+        }
+        recommendationCache.put(studentId, ids);
+        return recommendations;
+    }
+
+    private List<Course> computeRecommendations(Long studentId, StudentDataLoader.StudentData data) {
+        // Fetch attempts with quiz->course eagerly
+        List<QuizAttempt> attempts = data != null ? data.attempts() : loadAttempts(studentId);
+
         // Get enrolled courses
         List<CourseEnrollment> enrolled = new ArrayList<>();
         try {
-            enrolled = enrollmentRepository.findByStudentId(studentId);
+            enrolled = data != null ? data.enrollments() : enrollmentRepository.findByStudentId(studentId);
         } catch (Throwable ignored) {
         }
 
@@ -92,78 +132,66 @@ public class RecommendationService {
             // Add activity (attempt count)
             score.incrementActivity();
 
-            // Analyze feedback sentiment
-            if (attempt.getFeedback() != null && !attempt.getFeedback().trim().isEmpty()) {
-                score.addFeedback(analyzeFeedbackSentiment(attempt.getFeedback()));
+            // Feedback sentiment, scored when the attempt was submitted
+            if (attempt.getFeedbackSentiment() != null) {
+                score.addFeedback(attempt.getFeedbackSentiment());
             }
         }
+        for (Long courseId : enrolledCourseIds) {
+            courseScores.computeIfAbsent(courseId, k -> new CourseRecommendationScore(courseId));
+        }
 
-        // Get all courses for popularity scoring
-        List<Course> allCourses = new ArrayList<>();
-        try {
-            allCourses = courseRepository.findAll();
-        } catch (Throwable ignored) {
-            allCourses = new ArrayList<>();
+        // Students who took these courses also took...
+        Set<Long> seedCourseIds = new HashSet<>(courseScores.keySet());
+        Map<Long, Double> similar = similarityIndex.neighbourScores(seedCourseIds, Set.of(), SIMILAR_CANDIDATES);
+        for (Map.Entry<Long, Double> entry : similar.entrySet()) {
+            courseScores.computeIfAbsent(entry.getKey(), k -> new CourseRecommendationScore(entry.getKey()))
+                    .setSimilarity(entry.getValue());
         }
 
-        // Calculate popularity scores for all courses
-        for (Course course : allCourses) {
-            if (course == null) {
-                continue;
+        // Courses the student has no history in score exactly their aggregate base score,
+        // so the best of them are the head of the base score index. Reading one extra row
+        // per personal course guarantees MAX_RECOMMENDATIONS catalog candidates remain.
+        Map<Long, CourseAggregate> aggregates = new HashMap<>();
+        try {
+            for (CourseAggregate agg : courseAggregateService.topByBaseScore(MAX_RECOMMENDATIONS + courseScores.size())) {
+                aggregates.put(agg.getCourseId(), agg);
             }
-
-            Long courseId = course.getId();
-            if (!courseScores.containsKey(courseId)) {
-                courseScores.put(courseId, new CourseRecommendationScore(courseId));
+            Set<Long> missing = new HashSet<>(courseScores.keySet());
+            missing.removeAll(aggregates.keySet());
+            if (!missing.isEmpty()) {
+                for (CourseAggregate agg : courseAggregateService.findByCourseIds(missing)) {
+                    aggregates.put(agg.getCourseId(), agg);
+                }
             }
+        } catch (Throwable ignored) {
+        }
 
-            CourseRecommendationScore score = courseScores.get(courseId);
-
-            // Calculate enrollment count (popularity) using course-specific query to avoid loading all enrollments
-            try {
-                long enrollmentCount = enrollmentRepository.findByCourseId(courseId).stream()
-                        .filter(e -> e.getUnenrolledAt() == null)
-                        .count();
-                score.setPopularity(enrollmentCount);
-            } catch (Throwable ignored) {
-            }
+        // Apply popularity and overall feedback from the aggregate snapshot
+        for (CourseAggregate agg : aggregates.values()) {
+            courseScores.computeIfAbsent(agg.getCourseId(), k -> new CourseRecommendationScore(agg.getCourseId()))
+                    .applyAggregate(agg);
+        }
 
-            // Get overall feedback for course
-            try {
-                List<Feedback> courseFeedbacks = feedbackRepository.findByCourseId(courseId);
-                if (courseFeedbacks != null && !courseFeedbacks.isEmpty()) {
-                    double avgRating = courseFeedbacks.stream()
-                            .filter(f -> f.getRating() != null)
-                            .mapToDouble(Feedback::getRating)
-                            .average()
-                            .orElse(0.0);
-                    score.setOverallFeedbackRating(avgRating);
-
-                    // Analyze feedback comments
-                    for (Feedback feedback : courseFeedbacks) {
-                        if (feedback.getComments() != null && !feedback.getComments().trim().isEmpty()) {
-                            score.addFeedback(analyzeFeedbackSentiment(feedback.getComments()));
-                        }
-                    }
-                }
-            } catch (Throwable ignored) {
-            }
+        Map<Long, Course> courses = new HashMap<>();
+        for (Course course : courseRepository.findAllById(courseScores.keySet())) {
+            courses.put(course.getId(), course);
         }
 
-        // Calculate final recommendation scores
-        List<CourseRecommendation> recommendations = new ArrayList<>();
-        final double REVIEW_THRESHOLD = 70.0;
+        // Calculate final recommendation scores, keeping only the best MAX_RECOMMENDATIONS
+        // in a min-heap whose head is the weakest candidate kept so far
+        PriorityQueue<CourseRecommendation> top = new PriorityQueue<>(
+                MAX_RECOMMENDATIONS + 1, Comparator.comparingDouble(r -> r.score));
 
         for (Map.Entry<Long, CourseRecommendationScore> entry : courseScores.entrySet()) {
             Long courseId = entry.getKey();
             CourseRecommendationScore score = entry.getValue();
 
-            Optional<Course> courseOpt = courseRepository.findById(courseId);
-            if (courseOpt.isEmpty()) {
+            Course course = courses.get(courseId);
+            if (course == null) {
                 continue;
             }
 
-            Course course = courseOpt.get();
             boolean isEnrolled = enrolledCourseIds.contains(courseId);
 
             // Calculate weighted recommendation score
@@ -181,73 +209,80 @@ public class RecommendationService {
                     recommendationScore += 30.0; // Positive feedback but needs practice
                 }
             } else {
-                // For unenrolled courses, consider popularity and overall feedback
-                if (score.getPopularity() > 10 && score.getOverallFeedbackRating() > 3.5) {
-                    recommendationScore += 40.0; // Popular and well-received
-                }
+                recommendationScore += popularityBoost(score.getPopularity(), score.getOverallFeedbackRating());
+                // Co-enrollment signal, saturating once the summed similarity reaches 1
+                recommendationScore += Math.min(score.getSimilarity(), 1.0) * SIMILARITY_WEIGHT;
             }
 
-            recommendations.add(new CourseRecommendation(course, recommendationScore, isEnrolled));
+            if (top.size() < MAX_RECOMMENDATIONS) {
+                top.add(new CourseRecommendation(course, recommendationScore, isEnrolled));
+            } else if (recommendationScore > top.peek().score) {
+                top.poll();
+                top.add(new CourseRecommendation(course, recommendationScore, isEnrolled));
+            }
         }
 
-        // Sort by recommendation score (descending)
-        recommendations.sort((a, b) -> Double.compare(b.score, a.score));
+        // Drain weakest-first, then flip to descending score
+        List<Course> recommendations = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            recommendations.add(top.poll().course);
+        }
+        Collections.reverse(recommendations);
+        return recommendations;
+    }
 
-        // Return top recommendations (limit to 10)
-        return recommendations.stream()
-                .limit(10)
-                .map(r -> r.course)
-                .collect(Collectors.toList());
+    private List<QuizAttempt> loadAttempts(Long studentId) {
+        try {
+            return quizAttemptRepository.findByStudentIdWithQuizCourse(studentId);
+        } catch (Throwable t) {
+            try {
+                return quizAttemptRepository.findByStudentId(studentId);
+            } catch (Throwable t2) {
+                return new ArrayList<>();
+            }
+        }
     }
 
     /**
-     * Analyze feedback sentiment (simple keyword-based approach) Returns: -1.0
-     * (negative) to 1.0 (positive)
+     * Score of a course for a student who is not enrolled and has never
+     * attempted it. Depends only on the aggregate, so it is stored as
+     * CourseAggregate.baseScore and indexed.
      */
-    private double analyzeFeedbackSentiment(String feedback) {
-        if (feedback == null || feedback.trim().isEmpty()) {
-            return 0.0;
-        }
-
-        String lower = feedback.toLowerCase();
-        double sentiment = 0.0;
-
-        // Positive indicators
-        String[] positiveWords = {"good", "great", "excellent", "helpful", "useful", "clear", "understand", "easy", "love", "amazing", "wonderful"};
-        for (String word : positiveWords) {
-            if (lower.contains(word)) {
-                sentiment += 0.15;
-            }
-        }
+    static double catalogScore(CourseAggregate agg) {
+        CourseRecommendationScore score = new CourseRecommendationScore(agg.getCourseId());
+        score.applyAggregate(agg);
+        return score.calculateRecommendationScore()
+                + popularityBoost(score.getPopularity(), score.getOverallFeedbackRating());
+    }
 
-        // Negative indicators
-        String[] negativeWords = {"difficult", "hard", "confusing", "unclear", "bad", "poor", "terrible", "hate", "disappoint", "waste", "useless"};
-        for (String word : negativeWords) {
-            if (lower.contains(word)) {
-                sentiment -= 0.15;
-            }
+    // For unenrolled courses, consider popularity and overall feedback
+    private static double popularityBoost(long popularity, double overallFeedbackRating) {
+        if (popularity > 10 && overallFeedbackRating > 3.5) {
+            return 40.0; // Popular and well-received
         }
-
-        // Clamp to [-1, 1]
-        return Math.max(-1.0, Math.min(1.0, sentiment));
+        return 0.0;
     }
 
     // Helper classes for scoring
     private static class CourseRecommendationScore {
 
         private Long courseId;
-        private List<Double> scores = new ArrayList<>();
+        private double scoreSum = 0.0;
+        private int scoreCount = 0;
         private int activityCount = 0;
-        private List<Double> feedbackSentiments = new ArrayList<>();
+        private double sentimentSum = 0.0;
+        private long sentimentCount = 0;
         private long popularity = 0;
         private double overallFeedbackRating = 0.0;
+        private double similarity = 0.0;
 
         public CourseRecommendationScore(Long courseId) {
             this.courseId = courseId;
         }
 
         public void addScore(double score) {
-            scores.add(score);
+            scoreSum += score;
+            scoreCount++;
         }
 
         public void incrementActivity() {
@@ -255,23 +290,32 @@ public class RecommendationService {
         }
 
         public void addFeedback(double sentiment) {
-            feedbackSentiments.add(sentiment);
-        }
-
-        public void setPopularity(long popularity) {
-            this.popularity = popularity;
+            sentimentSum += sentiment;
+            sentimentCount++;
         }
 
-        public void setOverallFeedbackRating(double rating) {
-            this.overallFeedbackRating = rating;
+        // Course-wide popularity, rating and comment sentiment from the snapshot
+        public void applyAggregate(CourseAggregate agg) {
+            popularity = agg.getActiveEnrollments();
+            overallFeedbackRating = agg.getAverageRating();
+            sentimentSum += agg.getSentimentSum();
+            sentimentCount += agg.getSentimentCount();
         }
 
         public double getAverageScore() {
-            return scores.isEmpty() ? 0.0 : scores.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            return scoreCount == 0 ? 0.0 : scoreSum / scoreCount;
         }
 
         public double getFeedbackSentiment() {
-            return feedbackSentiments.isEmpty() ? 0.0 : feedbackSentiments.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            return sentimentCount == 0 ? 0.0 : sentimentSum / sentimentCount;
+        }
+
+        public void setSimilarity(double similarity) {
+            this.similarity = similarity;
+        }
+
+        public double getSimilarity() {
+            return similarity;
         }
 
         public long getPopularity() {
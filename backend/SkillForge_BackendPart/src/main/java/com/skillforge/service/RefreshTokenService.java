@@ -0,0 +1,198 @@
+package com.skillforge.service;
+
+import com.skillforge.config.JwtService;
+import com.skillforge.config.RevokedSessions;
+import com.skillforge.entity.RefreshToken;
+import com.skillforge.entity.User;
+import com.skillforge.repository.RefreshTokenRepository;
+import com.skillforge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Login sessions: a short-lived access token plus a rotating refresh token
+ * stored (hashed) in refresh_tokens. Revoking a session marks its token
+ * family revoked in the table and in RevokedSessions, which JwtAuthFilter
+ * consults on every request. The in-memory set is rebuilt from the table at
+ * startup and resynced periodically so revocations reach every instance.
+ */
+@Service
+public class RefreshTokenService {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RevokedSessions revokedSessions;
+
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /** Access and refresh token pair handed to the client. */
+    public static class Session {
+
+        private final String accessToken;
+        private final String refreshToken;
+        private final User user;
+
+        Session(String accessToken, String refreshToken, User user) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.user = user;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+    }
+
+    @Transactional
+    public Session start(User user) {
+        String familyId = UUID.randomUUID().toString();
+        String refreshToken = issue(familyId, user.getId());
+        return new Session(jwtService.generateToken(user, familyId), refreshToken, user);
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair in the same session, or returns
+     * null when the token is unknown, expired or revoked. A token that was
+     * already exchanged has leaked, so its whole session is revoked.
+     */
+    @Transactional
+    public Session rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return null;
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(sha256(rawToken)).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (current == null || current.getRevokedAt() != null || current.getExpiresAt().isBefore(now)) {
+            return null;
+        }
+        if (current.getUsedAt() != null) {
+            revokeFamily(current.getFamilyId());
+            return null;
+        }
+        Optional<User> user = userRepository.findById(current.getUserId());
+        if (user.isEmpty()) {
+            revokeFamily(current.getFamilyId());
+            return null;
+        }
+
+        current.setUsedAt(now);
+        refreshTokenRepository.save(current);
+        String next = issue(current.getFamilyId(), current.getUserId());
+        return new Session(jwtService.generateToken(user.get(), current.getFamilyId()), next, user.get());
+    }
+
+    /** Ends the session the refresh token belongs to (logout). */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(sha256(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    /** Ends every session of the user; their access tokens stop working on the next request. */
+    @Transactional
+    public int revokeAllForUser(Long userId) {
+        List<String> families = refreshTokenRepository.findActiveFamilyIdsByUserId(userId);
+        families.forEach(this::revokeFamily);
+        return families.size();
+    }
+
+    private void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId, LocalDateTime.now());
+        revokedSessions.revoke(familyId, System.currentTimeMillis() + jwtService.getExpiration());
+    }
+
+    private String issue(String familyId, Long userId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(sha256(raw));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setIssuedAt(now);
+        token.setExpiresAt(now.plusNanos(refreshExpirationMs * 1_000_000L));
+        refreshTokenRepository.save(token);
+        return raw;
+    }
+
+    // Startup rebuild, then a periodic resync that also picks up revocations made by other instances
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${auth.revocation.sync-interval-ms:60000}",
+            fixedDelayString = "${auth.revocation.sync-interval-ms:60000}")
+    public void syncRevocations() {
+        try {
+            long lifetime = jwtService.getExpiration();
+            LocalDateTime since = LocalDateTime.now().minusNanos(lifetime * 1_000_000L);
+            long until = System.currentTimeMillis() + lifetime;
+            for (String familyId : refreshTokenRepository.findFamilyIdsRevokedSince(since)) {
+                revokedSessions.revoke(familyId, until);
+            }
+            revokedSessions.prune();
+        } catch (Exception e) {
+            System.err.println("Failed to sync revoked sessions: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${auth.refresh-tokens.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${auth.refresh-tokens.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        try {
+            int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+            if (deleted > 0) {
+                System.out.println("Deleted " + deleted + " expired refresh tokens");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to delete expired refresh tokens: " + e.getMessage());
+        }
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
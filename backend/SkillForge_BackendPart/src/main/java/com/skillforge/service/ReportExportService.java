@@ -0,0 +1,272 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams admin exports straight from a forward-only JDBC cursor to the
+ * response, one row at a time, so memory use does not depend on table size.
+ * With MySQL Connector/J a fetch size of Integer.MIN_VALUE makes the driver
+ * stream rows instead of buffering the whole result set.
+ */
+@Service
+public class ReportExportService {
+
+    public enum ExportType {
+        USERS("users", "SELECT id, first_name, last_name, email, role, created_at FROM users ORDER BY id"),
+        COURSES("courses", "SELECT id, title, difficulty_level, estimated_duration, instructor_id, created_at, "
+                + "updated_at FROM courses ORDER BY id"),
+        ENROLLMENTS("enrollments", "SELECT id, course_id, student_id, enrolled_at, unenrolled_at "
+                + "FROM course_enrollments ORDER BY id"),
+        ATTEMPTS("attempts", "SELECT a.id, a.quiz_id, q.course_id, a.student_id, a.score, a.attempted_at, "
+                + "a.feedback_sentiment FROM quiz_attempts a LEFT JOIN quizzes q ON q.id = a.quiz_id ORDER BY a.id"),
+        FEEDBACK("feedback", "SELECT id, course_id, user_id, rating, comments, sentiment, created_at "
+                + "FROM feedback ORDER BY id");
+
+        private final String fileName;
+        private final String sql;
+
+        ExportType(String fileName, String sql) {
+            this.fileName = fileName;
+            this.sql = sql;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public static ExportType fromPath(String type) {
+            String key = type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+            switch (key) {
+                case "users": return USERS;
+                case "courses": return COURSES;
+                case "enrollments": return ENROLLMENTS;
+                // The admin page's "quiz report" is the attempt log
+                case "attempts":
+                case "quizzes": return ATTEMPTS;
+                case "feedback": return FEEDBACK;
+                default: throw new IllegalArgumentException("Unknown export type: " + type);
+            }
+        }
+    }
+
+    public enum ExportFormat {
+        CSV("csv", "text/csv"),
+        JSONL("jsonl", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        ExportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static ExportFormat fromParam(String format) {
+            String key = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+            switch (key) {
+                case "":
+                case "csv": return CSV;
+                case "jsonl":
+                case "ndjson": return JSONL;
+                default: throw new IllegalArgumentException("Unknown export format: " + format);
+            }
+        }
+    }
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    public void export(ExportType type, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, WRITE_BUFFER_CHARS) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        RowWriter rows = format == ExportFormat.JSONL ? new JsonLinesWriter(writer) : new CsvWriter(writer);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(type.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (ResultSetExtractor<Void>) rs -> {
+            try {
+                rows.begin(rs.getMetaData());
+                while (rs.next()) {
+                    rows.write(rs);
+                }
+                return null;
+            } catch (IOException e) {
+                // Client went away; abort the query instead of reading the rest of the table
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        rows.finish();
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+    }
+
+    private interface RowWriter {
+        void begin(ResultSetMetaData meta) throws SQLException, IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /** RFC 4180 CSV: header row, fields quoted only when they need it. */
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+        private int columns;
+
+        CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin(ResultSetMetaData meta) throws SQLException, IOException {
+            columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writeField(meta.getColumnLabel(i));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    /** One JSON object per line, written with the streaming generator. */
+    private final class JsonLinesWriter implements RowWriter {
+
+        private final Writer writer;
+        private JsonGenerator generator;
+        private String[] labels;
+        private boolean written;
+
+        JsonLinesWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin(ResultSetMetaData meta) throws SQLException, IOException {
+            labels = new String[meta.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = meta.getColumnLabel(i + 1);
+            }
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(labels[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof BigDecimal) {
+                    generator.writeNumber((BigDecimal) value);
+                } else if (value instanceof Number) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            written = true;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // Terminate the last record so the file is valid line-delimited JSON
+            generator.flush();
+            if (written) {
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.skillforge.service;
+
+import com.skillforge.repository.FeedbackRepository;
+import com.skillforge.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Scores feedback and quiz attempt comments written before sentiment was
+ * stored on the row. Runs shortly after startup and then periodically; once
+ * everything is scored each run is a single empty query per table.
+ */
+@Component
+public class SentimentBackfillJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private SentimentScorer sentimentScorer;
+
+    @Autowired
+    private CourseAggregateService courseAggregateService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(initialDelayString = "${sentiment.backfill.initial-delay-ms:10000}",
+            fixedDelayString = "${sentiment.backfill.interval-ms:3600000}")
+    public void backfill() {
+        try {
+            int feedbackRows = backfill(feedbackRepository::findUnscoredComments, this::scoreFeedback);
+            int attemptRows = backfill(quizAttemptRepository::findUnscoredFeedback, batch -> {
+                for (Object[] row : batch) {
+                    quizAttemptRepository.updateFeedbackSentiment((Long) row[0], sentimentScorer.score((String) row[1]));
+                }
+            });
+            if (feedbackRows > 0 || attemptRows > 0) {
+                System.out.println("Sentiment backfill scored " + feedbackRows + " feedback rows and "
+                        + attemptRows + " quiz attempts");
+            }
+        } catch (Exception e) {
+            System.err.println("Sentiment backfill failed: " + e.getMessage());
+        }
+    }
+
+    // Course aggregates were built without these sentiments: add them per course, in the same transaction
+    private void scoreFeedback(List<Object[]> batch) {
+        Map<Long, double[]> byCourse = new TreeMap<>();
+        for (Object[] row : batch) {
+            double sentiment = sentimentScorer.score((String) row[1]);
+            if (feedbackRepository.updateSentiment((Long) row[0], sentiment) == 1 && row[2] != null) {
+                double[] delta = byCourse.computeIfAbsent((Long) row[2], id -> new double[2]);
+                delta[0] += sentiment;
+                delta[1]++;
+            }
+        }
+        byCourse.forEach((courseId, delta) ->
+                courseAggregateService.addSentiments(courseId, delta[0], (long) delta[1]));
+    }
+
+    private int backfill(BiFunction<Long, PageRequest, List<Object[]>> findUnscored,
+            Consumer<List<Object[]>> scoreBatch) {
+        int total = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> batch = findUnscored.apply(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) {
+                return total;
+            }
+            transactionTemplate.executeWithoutResult(status -> scoreBatch.accept(batch));
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+            total += batch.size();
+        }
+    }
+}
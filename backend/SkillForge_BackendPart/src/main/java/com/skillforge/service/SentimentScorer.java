@@ -0,0 +1,192 @@
+package com.skillforge.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Keyword sentiment for free-text feedback, scored once when the text is
+ * written. All keywords and negation words are compiled into a single
+ * Aho-Corasick automaton, so a comment is scored in one pass regardless of
+ * vocabulary size.
+ *
+ * Matches must sit on word boundaries ("hard" does not match "hardware");
+ * keywords ending in '*' also match as a word prefix ("disappoint*" matches
+ * "disappointed"). A keyword within three words after a negation
+ * ("not", "never", "didn't", ...) counts with the opposite polarity.
+ * Returns a value in [-1.0, 1.0].
+ */
+@Component
+public class SentimentScorer {
+
+    private static final double KEYWORD_WEIGHT = 0.15;
+    private static final int NEGATION_WINDOW = 3;
+
+    private static final String[] POSITIVE_WORDS = {
+            "good", "great", "excellent", "helpful", "useful", "clear", "understand*",
+            "easy", "love*", "amazing", "wonderful"
+    };
+    private static final String[] NEGATIVE_WORDS = {
+            "difficult", "hard", "confusing", "unclear", "bad", "poor", "terrible",
+            "hate*", "disappoint*", "waste*", "useless"
+    };
+    private static final String[] NEGATION_WORDS = {
+            "not", "no", "never", "nothing", "cannot", "don't", "doesn't", "didn't",
+            "isn't", "wasn't", "aren't", "weren't", "can't", "couldn't", "won't", "wouldn't"
+    };
+
+    // a-z plus apostrophe; every other character sends the automaton back to the root
+    private static final int ALPHABET = 27;
+
+    private final int[][] transitions;
+    private final int[][] outputs;
+    private final int[] termLength;
+    private final boolean[] termIsPrefix;
+    private final double[] termPolarity; // +1, -1, or 0 for negation words
+
+    public SentimentScorer() {
+        List<String> terms = new ArrayList<>();
+        List<Double> polarity = new ArrayList<>();
+        for (String w : POSITIVE_WORDS) { terms.add(w); polarity.add(1.0); }
+        for (String w : NEGATIVE_WORDS) { terms.add(w); polarity.add(-1.0); }
+        for (String w : NEGATION_WORDS) { terms.add(w); polarity.add(0.0); }
+
+        int termCount = terms.size();
+        termLength = new int[termCount];
+        termIsPrefix = new boolean[termCount];
+        termPolarity = new double[termCount];
+
+        // Trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<int[]> ownOutputs = new ArrayList<>();
+        gotoTable.add(newRow());
+        ownOutputs.add(new int[0]);
+        for (int t = 0; t < termCount; t++) {
+            String term = terms.get(t);
+            termIsPrefix[t] = term.endsWith("*");
+            String word = termIsPrefix[t] ? term.substring(0, term.length() - 1) : term;
+            termLength[t] = word.length();
+            termPolarity[t] = polarity.get(t);
+
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int symbol = symbol(word.charAt(i));
+                if (gotoTable.get(state)[symbol] < 0) {
+                    gotoTable.get(state)[symbol] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    ownOutputs.add(new int[0]);
+                }
+                state = gotoTable.get(state)[symbol];
+            }
+            int[] out = ownOutputs.get(state);
+            out = Arrays.copyOf(out, out.length + 1);
+            out[out.length - 1] = t;
+            ownOutputs.set(state, out);
+        }
+
+        // Failure links, folded into a full DFA transition table
+        int stateCount = gotoTable.size();
+        transitions = gotoTable.toArray(new int[0][]);
+        outputs = ownOutputs.toArray(new int[0][]);
+        int[] fail = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int a = 0; a < ALPHABET; a++) {
+            int next = transitions[0][a];
+            if (next < 0) {
+                transitions[0][a] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int a = 0; a < ALPHABET; a++) {
+                int next = transitions[state][a];
+                if (next < 0) {
+                    transitions[state][a] = transitions[fail[state]][a];
+                } else {
+                    fail[next] = transitions[fail[state]][a];
+                    outputs[next] = concat(outputs[next], outputs[fail[next]]);
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    public double score(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0.0;
+        }
+
+        double sentiment = 0.0;
+        boolean[] seen = new boolean[termLength.length];
+        int state = 0;
+        int wordIndex = -1;
+        int lastNegationWord = -NEGATION_WINDOW - 1;
+        boolean previousWasWordChar = false;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            boolean wordChar = isWordChar(c);
+            if (wordChar && !previousWasWordChar) {
+                wordIndex++;
+            }
+            previousWasWordChar = wordChar;
+
+            int symbol = symbol(c);
+            state = symbol < 0 ? 0 : transitions[state][symbol];
+
+            for (int term : outputs[state]) {
+                int start = i - termLength[term] + 1;
+                if (start > 0 && isWordChar(text.charAt(start - 1))) {
+                    continue;
+                }
+                if (!termIsPrefix[term] && i + 1 < length && isWordChar(text.charAt(i + 1))) {
+                    continue;
+                }
+                if (termPolarity[term] == 0.0) {
+                    lastNegationWord = wordIndex;
+                } else if (!seen[term]) {
+                    seen[term] = true;
+                    boolean negated = wordIndex - lastNegationWord <= NEGATION_WINDOW;
+                    sentiment += (negated ? -termPolarity[term] : termPolarity[term]) * KEYWORD_WEIGHT;
+                }
+            }
+        }
+
+        // Clamp to [-1, 1]
+        return Math.max(-1.0, Math.min(1.0, sentiment));
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return c == '\'' || c == '’' ? 26 : -1;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'' || c == '’';
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        int[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+}
@@ -0,0 +1,76 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.CourseEnrollment;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.repository.CourseEnrollmentRepository;
+import com.skillforge.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the per-student datasets that several dashboard sections need, once
+ * per request. Both queries start immediately on the given executor; a
+ * section blocks only when it first reads a dataset that is still loading,
+ * or waits for both up front with {@link StudentData#await()}.
+ *
+ * Entities come back with the associations the dashboard touches already
+ * fetched (attempt -> quiz -> course, enrollment -> course -> instructor),
+ * so they can be read from any thread after their loading session closed.
+ */
+@Component
+public class StudentDataLoader {
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    public StudentData load(Long studentId, Executor executor) {
+        return new StudentData(studentId,
+                CompletableFuture.supplyAsync(() -> quizAttemptRepository.findByStudentIdWithQuizCourse(studentId), executor),
+                CompletableFuture.supplyAsync(() -> enrollmentRepository.findByStudentIdWithCourse(studentId), executor));
+    }
+
+    /** Datasets for one student; treat the returned lists as read-only. */
+    public static final class StudentData {
+
+        private final Long studentId;
+        private final CompletableFuture<List<QuizAttempt>> attempts;
+        private final CompletableFuture<List<CourseEnrollment>> enrollments;
+
+        private StudentData(Long studentId, CompletableFuture<List<QuizAttempt>> attempts,
+                            CompletableFuture<List<CourseEnrollment>> enrollments) {
+            this.studentId = studentId;
+            this.attempts = attempts;
+            this.enrollments = enrollments;
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        /**
+         * Waits for both datasets. Unlike attempts()/enrollments() the wait
+         * can be interrupted, so a cancelled caller stops waiting at once.
+         */
+        public void await() throws InterruptedException, ExecutionException {
+            CompletableFuture.allOf(attempts, enrollments).get();
+        }
+
+        // Newest first, with quiz and course fetched
+        public List<QuizAttempt> attempts() {
+            return attempts.join();
+        }
+
+        // Active and past enrollments, with course and instructor fetched
+        public List<CourseEnrollment> enrollments() {
+            return enrollments.join();
+        }
+    }
+}
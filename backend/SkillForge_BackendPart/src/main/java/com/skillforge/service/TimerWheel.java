@@ -0,0 +1,154 @@
+package com.skillforge.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timer wheel for many coarse deadlines (one per quiz session).
+ * Scheduling and cancelling are O(1) and never block: new timeouts are
+ * queued and moved into their bucket by the ticker thread, cancelled ones
+ * are dropped when their bucket comes round. Each tick only looks at one
+ * bucket, so cost does not grow with the number of pending deadlines.
+ *
+ * Deadlines fire up to one tick late. Expired tasks run on the given
+ * executor, never on the ticker thread.
+ */
+public class TimerWheel {
+
+    public static final class Timeout {
+
+        private final long deadlineNanos;
+        private final Runnable task;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private Thread ticker;
+    private volatile boolean running = true;
+    private long tick;
+
+    public TimerWheel(String name, long tickMillis, int wheelSize, Executor executor) {
+        this(tickMillis, wheelSize, executor, System::nanoTime);
+        this.ticker = new Thread(this::run, name);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    // Without a ticker thread: time comes from clock and the caller drives advance() (tests)
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int wheelSize, Executor executor, LongSupplier clock) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.executor = executor;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    /** Runs {@code task} once {@code delayMillis} have passed, unless cancelled first. */
+    public Timeout schedule(long delayMillis, Runnable task) {
+        Timeout timeout = new Timeout(clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)), task);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    public int pending() {
+        int count = incoming.size();
+        for (Queue<Timeout> bucket : buckets) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long nextTick = startNanos + (tick + 1) * tickNanos;
+            long sleep = nextTick - clock.getAsLong();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            advance();
+        }
+    }
+
+    // One tick: file newly scheduled timeouts, then expire the current bucket
+    void advance() {
+        tick++;
+        transferIncoming();
+        expire(buckets[(int) (tick & mask)]);
+    }
+
+    // Only the ticker thread touches the buckets
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long dueTick = Math.max(tick, (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                it.remove();
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to run timer task: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
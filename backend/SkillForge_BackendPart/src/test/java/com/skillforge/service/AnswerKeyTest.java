@@ -0,0 +1,185 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.WrongAnswerDTO;
+import com.skillforge.entity.Course;
+import com.skillforge.entity.Question;
+import com.skillforge.entity.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Answer matching (surrounding whitespace and case ignored, nothing else)
+ * and grading of whole submissions against a compiled key.
+ */
+class AnswerKeyTest {
+
+    private static Question question(long id, String prompt, String optionsJson, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setPrompt(prompt);
+        question.setOptionsJson(optionsJson);
+        question.setCorrectAnswer(correctAnswer);
+        question.setType(optionsJson != null ? "MCQ" : "SHORT_ANSWER");
+        return question;
+    }
+
+    private static AnswerKey key() {
+        Course course = new Course();
+        course.setId(7L);
+        Quiz quiz = new Quiz();
+        quiz.setId(3L);
+        quiz.setCourse(course);
+        List<Question> questions = new ArrayList<>();
+        questions.add(question(11, "Capital of France?", "[\"Paris\",\"London\",\"Berlin\"]", "Paris"));
+        questions.add(question(12, "Is Java compiled?", "[\"true\",\"false\"]", " True "));
+        questions.add(question(13, "How do plants make food?", null, "photosynthesis"));
+        questions.add(question(14, "Largest US city?", "[\"New York\",\"Boston\"]", "New York"));
+        quiz.setQuestions(questions);
+        return new AnswerKey(quiz);
+    }
+
+    @Test
+    void matchesIgnoresSurroundingWhitespaceAndCase() {
+        assertTrue(AnswerKey.matches("Paris", "Paris"));
+        assertTrue(AnswerKey.matches("Paris", "  paris\n"));
+        assertTrue(AnswerKey.matches("Paris", "\tPARIS "));
+        assertTrue(AnswerKey.matches("", "   "));
+    }
+
+    @Test
+    void matchesComparesEverythingElseExactly() {
+        assertFalse(AnswerKey.matches("New York", "NewYork"));
+        assertFalse(AnswerKey.matches("New York", "New  York"));
+        assertFalse(AnswerKey.matches("Paris", "Pari"));
+        assertFalse(AnswerKey.matches("Paris", "Paris."));
+        assertFalse(AnswerKey.matches("Paris", ""));
+    }
+
+    @Test
+    void matchesIsFalseWhenEitherSideIsMissing() {
+        assertFalse(AnswerKey.matches(null, "Paris"));
+        assertFalse(AnswerKey.matches("Paris", null));
+        assertFalse(AnswerKey.matches(null, null));
+    }
+
+    @Test
+    void keyKeepsQuestionOrderAndIds() {
+        AnswerKey key = key();
+
+        assertEquals(3L, key.getQuizId());
+        assertEquals(7L, key.getCourseId());
+        assertEquals(4, key.size());
+        assertEquals(13L, key.questionId(2));
+        assertEquals(3, key.indexOf(14));
+        assertEquals(-1, key.indexOf(99));
+        assertEquals(List.of("true", "false"), key.options(1));
+        assertTrue(key.options(2).isEmpty());
+    }
+
+    @Test
+    void keyCarriesTheQuizTimeLimit() {
+        assertFalse(key().isTimed());
+
+        Quiz quiz = new Quiz();
+        quiz.setId(5L);
+        quiz.setTimeLimitMinutes(20);
+        AnswerKey timed = new AnswerKey(quiz);
+        assertTrue(timed.isTimed());
+        assertEquals(20, timed.getTimeLimitMinutes());
+
+        quiz.setTimeLimitMinutes(0);
+        assertFalse(new AnswerKey(quiz).isTimed());
+    }
+
+    @Test
+    void allCorrectScoresFullMarks() {
+        Map<Long, String> answers = new HashMap<>();
+        answers.put(11L, "paris");
+        answers.put(12L, "TRUE");
+        answers.put(13L, " Photosynthesis ");
+        answers.put(14L, "new york");
+
+        AnswerKey.Grade grade = key().grade(answers);
+
+        assertEquals(4, grade.getCorrect());
+        assertEquals(4, grade.getTotal());
+        assertEquals(100.0, grade.getScore(), 1e-9);
+        assertTrue(grade.getWrongAnswers().isEmpty());
+        assertEquals(0, grade.chosenOption(0));
+        assertEquals(0, grade.chosenOption(1));
+        assertEquals(AnswerKey.OTHER_ANSWER, grade.chosenOption(2));
+    }
+
+    @Test
+    void wrongBlankAndMissingAnswersCountAgainstTheScore() {
+        Map<Long, String> answers = new HashMap<>();
+        answers.put(11L, "  paris\n");
+        answers.put(12L, "false");
+        answers.put(13L, "   ");
+
+        AnswerKey.Grade grade = key().grade(answers);
+
+        assertEquals(1, grade.getCorrect());
+        assertEquals(4, grade.getTotal());
+        assertEquals(25.0, grade.getScore(), 1e-9);
+        assertTrue(grade.isCorrect(0));
+        assertFalse(grade.isCorrect(1));
+        assertFalse(grade.isCorrect(2));
+        assertFalse(grade.isCorrect(3));
+        assertEquals(0, grade.chosenOption(0));
+        assertEquals(1, grade.chosenOption(1));
+        assertEquals(AnswerKey.NO_ANSWER, grade.chosenOption(2));
+        assertEquals(AnswerKey.NO_ANSWER, grade.chosenOption(3));
+
+        List<WrongAnswerDTO> wrong = grade.getWrongAnswers();
+        assertEquals(3, wrong.size());
+        WrongAnswerDTO first = wrong.get(0);
+        assertEquals(12L, first.getQuestionId());
+        assertEquals("Is Java compiled?", first.getPrompt());
+        assertEquals("false", first.getSelectedAnswer());
+        assertEquals(" True ", first.getCorrectAnswer());
+        assertEquals(List.of("true", "false"), first.getOptions());
+        assertEquals(13L, wrong.get(1).getQuestionId());
+        assertEquals(14L, wrong.get(2).getQuestionId());
+        assertNull(wrong.get(2).getSelectedAnswer());
+    }
+
+    @Test
+    void answerOutsideTheOptionsIsWrongAndMarkedOther() {
+        AnswerKey.Grade grade = key().grade(Map.of(14L, "NewYork"));
+
+        assertFalse(grade.isCorrect(3));
+        assertEquals(AnswerKey.OTHER_ANSWER, grade.chosenOption(3));
+    }
+
+    @Test
+    void noAnswersScoresZero() {
+        AnswerKey.Grade grade = key().grade(null);
+
+        assertEquals(0, grade.getCorrect());
+        assertEquals(0.0, grade.getScore(), 1e-9);
+        assertEquals(4, grade.getWrongAnswers().size());
+    }
+
+    @Test
+    void emptyQuizScoresZero() {
+        Quiz quiz = new Quiz();
+        quiz.setId(4L);
+        quiz.setQuestions(new ArrayList<>());
+
+        AnswerKey.Grade grade = new AnswerKey(quiz).grade(Map.of());
+
+        assertEquals(0, grade.getTotal());
+        assertEquals(0.0, grade.getScore(), 1e-9);
+        assertNull(new AnswerKey(quiz).getCourseId());
+    }
+}
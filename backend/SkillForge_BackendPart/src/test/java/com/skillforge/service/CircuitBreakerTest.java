@@ -0,0 +1,110 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Breaker transitions on a fake clock: closed until the failure threshold,
+ * open for the configured time, then a single half-open probe whose outcome
+ * closes or re-opens the circuit.
+ */
+class CircuitBreakerTest {
+
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MS = 1_000;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final CircuitBreaker breaker = new CircuitBreaker(THRESHOLD, OPEN_MS, now::get);
+
+    private void failCalls(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    private void openThenWait() {
+        failCalls(THRESHOLD);
+        now.addAndGet(OPEN_MS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void staysClosedBelowTheThreshold() {
+        failCalls(THRESHOLD - 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        failCalls(THRESHOLD - 1);
+        breaker.onSuccess();
+        failCalls(THRESHOLD - 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensAtTheThresholdAndRefusesCalls() {
+        failCalls(THRESHOLD);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(OPEN_MS - 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenLetsOnlyOneProbeThrough() {
+        openThenWait();
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() {
+        openThenWait();
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopensForAnotherFullPeriod() {
+        openThenWait();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(OPEN_MS - 1);
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(1);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void releasedProbeCanBeClaimedAgain() {
+        openThenWait();
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,124 @@
+package com.skillforge.service;
+
+import com.skillforge.entity.Course;
+import com.skillforge.entity.CourseEnrollment;
+import com.skillforge.entity.Quiz;
+import com.skillforge.entity.QuizAttempt;
+import com.skillforge.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Instructor analytics must issue the same number of SQL statements whether
+ * the instructor has a handful of courses or dozens of them.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(AnalyticsService.class)
+class InstructorAnalyticsQueryCountTest {
+
+    private static final int STUDENTS = 20;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void queryCountDoesNotGrowWithCourseCount() {
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(persistUser("student" + i, User.Role.STUDENT));
+        }
+        Long small = seedInstructor("small", 5, students);
+        Long large = seedInstructor("large", 50, students);
+        entityManager.flush();
+
+        long smallQueries = countStatements(small);
+        long largeQueries = countStatements(large);
+
+        assertEquals(smallQueries, largeQueries);
+    }
+
+    @Test
+    void countsEachStudentOnceAcrossCourses() {
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(persistUser("learner" + i, User.Role.STUDENT));
+        }
+        Long instructorId = seedInstructor("distinct", 10, students);
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, Object> report = analyticsService.instructorAnalytics(instructorId);
+
+        assertEquals(STUDENTS, report.get("totalStudents"));
+        assertEquals(10, report.get("totalCourses"));
+    }
+
+    private long countStatements(Long instructorId) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<String, Object> report = analyticsService.instructorAnalytics(instructorId);
+        assertEquals(null, report.get("error"));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long seedInstructor(String name, int courseCount, List<User> students) {
+        User instructor = persistUser(name, User.Role.INSTRUCTOR);
+        for (int c = 0; c < courseCount; c++) {
+            Course course = new Course(name + " course " + c, null, Course.DifficultyLevel.BEGINNER,
+                    10, null, instructor);
+            entityManager.persist(course);
+
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Quiz " + c);
+            quiz.setCourse(course);
+            quiz.setInstructor(instructor);
+            entityManager.persist(quiz);
+
+            // Every student takes a few courses, so students overlap between courses
+            for (int s = c % 4; s < students.size(); s += 4) {
+                CourseEnrollment enrollment = new CourseEnrollment();
+                enrollment.setCourse(course);
+                enrollment.setStudent(students.get(s));
+                enrollment.setEnrolledAt(LocalDateTime.now().minusDays(s + 1));
+                entityManager.persist(enrollment);
+
+                QuizAttempt attempt = new QuizAttempt();
+                attempt.setQuiz(quiz);
+                attempt.setStudent(students.get(s));
+                attempt.setScore(50.0 + s);
+                attempt.setAttemptedAt(LocalDateTime.now());
+                entityManager.persist(attempt);
+            }
+        }
+        return instructor.getId();
+    }
+
+    private User persistUser(String name, User.Role role) {
+        User user = new User(name, name, name + "@example.com", "secret", role);
+        entityManager.persist(user);
+        return user;
+    }
+}
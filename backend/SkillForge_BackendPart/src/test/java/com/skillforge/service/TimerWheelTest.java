@@ -0,0 +1,111 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timer wheel driven tick by tick on a fake clock: deadlines fire on the
+ * tick that reaches them, across any number of revolutions, and never
+ * after being cancelled.
+ */
+class TimerWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final List<String> fired = new ArrayList<>();
+    private final TimerWheel wheel = new TimerWheel(TICK_MS, WHEEL_SIZE, Runnable::run, nanos::get);
+
+    // Moves the clock on by whole ticks; returns everything that fired meanwhile
+    private List<String> advance(int ticks) {
+        fired.clear();
+        for (int i = 0; i < ticks; i++) {
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(TICK_MS));
+            wheel.advance();
+        }
+        return new ArrayList<>(fired);
+    }
+
+    private TimerWheel.Timeout schedule(long delayMillis, String name) {
+        return wheel.schedule(delayMillis, () -> fired.add(name));
+    }
+
+    @Test
+    void firesOnTheTickThatReachesTheDeadline() {
+        schedule(3 * TICK_MS, "a");
+
+        assertTrue(advance(2).isEmpty());
+        assertEquals(List.of("a"), advance(1));
+        assertTrue(advance(WHEEL_SIZE * 2).isEmpty());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void deadlineWithinTheCurrentTickFiresOnTheNextTick() {
+        schedule(0, "now");
+        schedule(TICK_MS / 2, "half");
+
+        assertEquals(List.of("now", "half"), advance(1));
+    }
+
+    @Test
+    void deadlineAlreadyPassedWhenFiledFiresAtOnce() {
+        advance(3);
+        // Scheduled now, but the clock moves on before the ticker files it
+        schedule(0, "late");
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(5 * TICK_MS));
+
+        assertEquals(List.of("late"), advance(1));
+    }
+
+    @Test
+    void deadlineExactlyOneRevolutionAwayWaitsAFullRound() {
+        schedule(WHEEL_SIZE * TICK_MS, "round");
+
+        assertTrue(advance(WHEEL_SIZE - 1).isEmpty());
+        assertEquals(List.of("round"), advance(1));
+    }
+
+    @Test
+    void sharedBucketOnlyFiresTimeoutsWhoseRoundsAreUsedUp() {
+        schedule(2 * TICK_MS, "first");
+        schedule((2 + WHEEL_SIZE) * TICK_MS, "second");
+        schedule((2 + 2 * WHEEL_SIZE) * TICK_MS, "third");
+
+        assertEquals(List.of("first"), advance(2));
+        assertTrue(advance(WHEEL_SIZE - 1).isEmpty());
+        assertEquals(List.of("second"), advance(1));
+        assertTrue(advance(WHEEL_SIZE - 1).isEmpty());
+        assertEquals(List.of("third"), advance(1));
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelledBeforeFilingNeverFires() {
+        schedule(2 * TICK_MS, "cancelled").cancel();
+        schedule(2 * TICK_MS, "kept");
+
+        assertEquals(List.of("kept"), advance(2));
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelledAfterFilingNeverFiresAndIsDropped() {
+        TimerWheel.Timeout timeout = schedule((3 + WHEEL_SIZE) * TICK_MS, "cancelled");
+        advance(1);
+        assertEquals(1, wheel.pending());
+
+        timeout.cancel();
+        assertTrue(timeout.isCancelled());
+        assertTrue(advance(3 * WHEEL_SIZE).isEmpty());
+        assertEquals(0, wheel.pending());
+    }
+}
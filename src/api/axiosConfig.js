@@ -10,10 +10,60 @@ const api = axios.create({
   },
 });
 
+// Access tokens live for minutes; renew shortly before they expire
+const REFRESH_MARGIN_MS = 30 * 1000;
+
+const tokenExpiresAt = (token) => {
+  try {
+    const payload = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
+    return payload.exp ? payload.exp * 1000 : null;
+  } catch (e) {
+    return null;
+  }
+};
+
+// One refresh at a time; concurrent requests wait for the same rotation
+let refreshInFlight = null;
+
+export const refreshAccessToken = () => {
+  if (!refreshInFlight) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshInFlight = (refreshToken
+      ? axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken })
+      : Promise.reject(new Error('No refresh token')))
+      .then((response) => {
+        localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
+        return response.data.token;
+      })
+      .catch((error) => {
+        localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
+        throw error;
+      })
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
+const isAuthRequest = (config) => config.url && config.url.startsWith('/auth/');
+
 // Request interceptor to add JWT token
 api.interceptors.request.use(
-  (config) => {
-    const token = localStorage.getItem('token');
+  async (config) => {
+    let token = localStorage.getItem('token');
+    if (token && !isAuthRequest(config) && localStorage.getItem('refreshToken')) {
+      const expiresAt = tokenExpiresAt(token);
+      if (expiresAt && expiresAt - Date.now() < REFRESH_MARGIN_MS) {
+        try {
+          token = await refreshAccessToken();
+        } catch (e) {
+          token = null;
+        }
+      }
+    }
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
@@ -27,7 +77,21 @@ api.interceptors.request.use(
 // Response interceptor to handle errors
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    // A rejected access token (expired or revoked session) gets one retry after a refresh
+    const config = error.config;
+    const status = error.response?.status;
+    if (config && !config._retried && (status === 401 || status === 403)
+        && !isAuthRequest(config) && localStorage.getItem('refreshToken')) {
+      config._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        config.headers.Authorization = `Bearer ${token}`;
+        return api(config);
+      } catch (e) {
+        // Fall through with the original error
+      }
+    }
     // Just pass the error through without redirecting
     return Promise.reject(error);
   }
@@ -65,6 +65,7 @@ export const AuthProvider = ({ children }) => {
         });
       } catch (error) {
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
       }
     }
@@ -74,9 +75,10 @@ export const AuthProvider = ({ children }) => {
     dispatch({ type: 'LOGIN_START' });
     try {
       const response = await api.post('/auth/login', credentials);
-      const { token, user } = response.data;
+      const { token, refreshToken, user } = response.data;
       
       localStorage.setItem('token', token);
+      localStorage.setItem('refreshToken', refreshToken);
       localStorage.setItem('user', JSON.stringify(user));
       
       dispatch({
@@ -99,9 +101,10 @@ export const AuthProvider = ({ children }) => {
     dispatch({ type: 'LOGIN_START' });
     try {
       const response = await api.post('/auth/register', userData);
-      const { token, user } = response.data;
+      const { token, refreshToken, user } = response.data;
       
       localStorage.setItem('token', token);
+      localStorage.setItem('refreshToken', refreshToken);
       localStorage.setItem('user', JSON.stringify(user));
       
       dispatch({
@@ -121,6 +124,12 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // End the server-side session too; the local sign-out does not wait for it
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      api.post('/auth/logout', { refreshToken }).catch(() => {});
+    }
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     dispatch({ type: 'LOGOUT' });
@@ -15,6 +15,7 @@ const GenerateQuiz = () => {
   const [success, setSuccess] = useState("");
   const [instructorCourses, setInstructorCourses] = useState([]);
   const [loadingCourses, setLoadingCourses] = useState(true);
+  const [jobStatus, setJobStatus] = useState(null); // QUEUED / RUNNING while an AI job is pending
   
   // Manual quiz questions state
   const [manualQuestions, setManualQuestions] = useState([
@@ -86,6 +87,21 @@ const GenerateQuiz = () => {
     setManualQuestions(updated);
   };
 
+  // AI quizzes are generated as a background job; poll its result until it is ready
+  const runGenerationJob = async (payload) => {
+    const submitted = await api.post("/quiz-generation-jobs", payload);
+    const jobId = submitted.data.jobId;
+    setJobStatus(submitted.data.status);
+    for (;;) {
+      await new Promise((resolve) => setTimeout(resolve, 2000));
+      const response = await api.get(`/quiz-generation-jobs/${jobId}/result`);
+      if (response.status !== 202) {
+        return response;
+      }
+      setJobStatus(response.data.status);
+    }
+  };
+
   const handleGenerate = async (e) => {
     e.preventDefault();
     setLoading(true);
@@ -128,16 +144,18 @@ const GenerateQuiz = () => {
               })),
             };
 
-      const response = await axios.post(
-        "http://localhost:8080/api/quizzes/generate",
-        payload,
-        {
-          headers: {
-            Authorization: token ? `Bearer ${token}` : "",
-            "Content-Type": "application/json",
-          },
-        }
-      );
+      const response = mode === "AI"
+        ? await runGenerationJob(payload)
+        : await axios.post(
+            "http://localhost:8080/api/quizzes/generate",
+            payload,
+            {
+              headers: {
+                Authorization: token ? `Bearer ${token}` : "",
+                "Content-Type": "application/json",
+              },
+            }
+          );
 
       if (response.data) {
         setQuizData(response.data);
@@ -172,6 +190,7 @@ const GenerateQuiz = () => {
       setError(errorMessage);
     } finally {
       setLoading(false);
+      setJobStatus(null);
     }
   };
 
@@ -376,7 +395,7 @@ const GenerateQuiz = () => {
             className="generate-quiz-btn"
             disabled={loading || !courseId || (mode === "AI" && !topic) || (mode === "MANUAL" && manualQuestions.length === 0)}
           >
-            {loading ? (mode === "AI" ? "Generating with AI..." : "Saving...") : mode === "AI" ? "Generate Quiz" : "Save Manual Quiz"}
+            {loading ? (mode === "AI" ? (jobStatus === "QUEUED" ? "Queued for generation..." : "Generating with AI...") : "Saving...") : mode === "AI" ? "Generate Quiz" : "Save Manual Quiz"}
           </button>
         </form>
 
@@ -118,7 +118,7 @@ const StudentCourseList = () => {
         const res = await api.post('/quizzes/generate', payload);
         quiz = res.data;
       }
-      setActiveQuiz({ courseId: course.id, quiz });
+      setActiveQuiz({ courseId: course.id, quiz, sessionId: await startTimedSession(quiz) });
       setAnswers({});
     } catch (err) {
       console.error(err);
@@ -126,6 +126,13 @@ const StudentCourseList = () => {
     }
   };
 
+  // Timed quizzes can only be submitted through a session, which starts the clock
+  const startTimedSession = async (quiz) => {
+    if (!quiz?.id || !quiz.timeLimitMinutes) return null;
+    const res = await api.post('/quiz-sessions/start', { quizId: quiz.id });
+    return res.data.sessionId;
+  };
+
   const handleSelectAnswer = (qIdx, value) => {
     setAnswers((a) => ({ ...a, [qIdx]: value }));
   };
@@ -135,15 +142,6 @@ const StudentCourseList = () => {
     try {
       setSubmittingAttempt(true);
       const quiz = activeQuiz.quiz;
-      // compute score naively: compare answers with correctAnswer if present
-      let total = quiz.questions.length;
-      let correct = 0;
-      quiz.questions.forEach((q, idx) => {
-        const ans = answers[idx];
-        if (!ans) return;
-        if (q.correctAnswer && q.correctAnswer === ans) correct++;
-      });
-      const score = total ? (correct / total) * 100 : 0;
 
       // Build submission payload expected by backend DTO
       if (!quiz.id) {
@@ -161,20 +159,22 @@ const StudentCourseList = () => {
         studentId: user.id,
         answers: answersMap,
       };
-      await api.post('/quiz-attempts/submit', submission);
+      const response = activeQuiz.sessionId
+        ? await api.post(`/quiz-sessions/${activeQuiz.sessionId}/finish`, submission)
+        : await api.post('/quiz-attempts/submit', submission);
+      // Graded on the server; the quiz sent to students carries no correct answers
+      const score = response.data.score || 0;
       toast.success(`Quiz submitted — score: ${Math.round(score)}%`);
 
-      // Build client-side review of wrong answers
-      const wrong = [];
-      (quiz.questions || []).forEach((q, idx) => {
-        const sel = answers[idx];
-        const corr = q.correctAnswer;
-        if (sel && corr && sel !== corr) {
-          let opts = [];
-          try { opts = q.optionsJson ? JSON.parse(q.optionsJson) : []; } catch {}
-          wrong.push({ questionId: q.id, prompt: q.prompt, selected: sel, correct: corr, options: opts });
-        }
-      });
+      const wrong = (response.data.wrongAnswers || [])
+        .filter((w) => w.selectedAnswer)
+        .map((w) => ({
+          questionId: w.questionId,
+          prompt: w.prompt,
+          selected: w.selectedAnswer,
+          correct: w.correctAnswer,
+          options: w.options || [],
+        }));
       setReviewItems(wrong);
       setLastScore(Math.round(score));
       setShowReview(true);
@@ -206,7 +206,7 @@ const StudentCourseList = () => {
       const res = await api.post('/quizzes/generate', { topic, courseId: activeQuiz.courseId, generationType: 'AI' });
       const nextQuiz = res.data;
       if (takeNow) {
-        setActiveQuiz({ courseId: activeQuiz.courseId, quiz: nextQuiz });
+        setActiveQuiz({ courseId: activeQuiz.courseId, quiz: nextQuiz, sessionId: await startTimedSession(nextQuiz) });
         setAnswers({});
         setShowReview(false);
         toast.success('Next quiz ready');
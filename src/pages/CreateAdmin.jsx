@@ -45,6 +45,7 @@ const CreateAdmin = () => {
       });
       
       localStorage.setItem('token', loginResponse.data.token);
+      localStorage.setItem('refreshToken', loginResponse.data.refreshToken);
       localStorage.setItem('user', JSON.stringify(loginResponse.data.user));
       
       navigate('/admin');
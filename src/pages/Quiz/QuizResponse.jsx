@@ -19,11 +19,23 @@ const QuizResponse = () => {
   const [clarifyResponse, setClarifyResponse] = useState('');
   const [showAttemptList, setShowAttemptList] = useState(false);
 
+  const loadAnswers = async (attemptId) => {
+    setAnswersMap({});
+    try {
+      const res = await api.get(`/quiz-attempts/${attemptId}/answers`);
+      const map = {};
+      (res.data || []).forEach(a => { map[a.questionId] = a.answer; });
+      setAnswersMap(map);
+    } catch {
+      setAnswersMap({});
+    }
+  };
+
   useEffect(() => {
     (async () => {
       try {
         const [quizRes, attemptsRes] = await Promise.all([
-          api.get(`/quizzes/${quizId}`),
+          api.get(`/quizzes/${quizId}/review`),
           api.get(`/quiz-attempts/student/${user.id}`)
         ]);
         setQuiz(quizRes.data);
@@ -42,13 +54,7 @@ const QuizResponse = () => {
         // Set latest attempt as default
         const latest = quizAttempts[0];
         setSelectedAttempt(latest);
-        if (latest.answersJson) {
-          try {
-            setAnswersMap(JSON.parse(latest.answersJson));
-          } catch {
-            setAnswersMap({});
-          }
-        }
+        loadAnswers(latest.id);
       } catch (e) {
         toast.error('Failed to load quiz response');
         navigate(-1);
@@ -59,13 +65,7 @@ const QuizResponse = () => {
   const handleAttemptSelect = (attempt) => {
     setSelectedAttempt(attempt);
     setShowAttemptList(false);
-    if (attempt.answersJson) {
-      try {
-        setAnswersMap(JSON.parse(attempt.answersJson));
-      } catch {
-        setAnswersMap({});
-      }
-    }
+    loadAnswers(attempt.id);
     setSelectedQuestionId(null);
     setClarifyResponse('');
   };
@@ -1,4 +1,4 @@
-import React, { useState, useEffect, Fragment } from 'react';
+import React, { useState, useEffect, useRef, Fragment } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import api from '../../api/axiosConfig';
 import { toast } from 'react-toastify';
@@ -19,6 +19,10 @@ const TakeQuiz = () => {
   const [aiHelpInput, setAiHelpInput] = useState('');
   const [aiHelpResponse, setAiHelpResponse] = useState('');
   const [aiHelpLoading, setAiHelpLoading] = useState(false);
+  const [sessionId, setSessionId] = useState(null);
+  // Latest answers for the autosave timer, and whether they changed since the last save
+  const answersRef = useRef({});
+  const dirtyRef = useRef(false);
 
   useEffect(() => {
     fetchQuiz();
@@ -52,11 +56,40 @@ const TakeQuiz = () => {
     }
   };
 
-  const handleStart = () => {
-    setStarted(true);
+  useEffect(() => {
+    if (!started || submitted || !sessionId) return;
+    const autosave = setInterval(async () => {
+      if (!dirtyRef.current) return;
+      dirtyRef.current = false;
+      try {
+        await api.put(`/quiz-sessions/${sessionId}/answers`, { answers: answersRef.current });
+      } catch (error) {
+        dirtyRef.current = true;
+      }
+    }, 10000);
+    return () => clearInterval(autosave);
+  }, [started, submitted, sessionId]);
+
+  const handleStart = async () => {
+    try {
+      // The server keeps the clock and the saved answers; resuming returns both
+      const res = await api.post('/quiz-sessions/start', { quizId: quiz.id });
+      setSessionId(res.data.sessionId);
+      const saved = res.data.answers || {};
+      answersRef.current = saved;
+      setAnswers(saved);
+      if (res.data.remainingSeconds !== null && res.data.remainingSeconds !== undefined) {
+        setTimeLeft(res.data.remainingSeconds);
+      }
+      setStarted(true);
+    } catch (error) {
+      toast.error('Failed to start quiz');
+    }
   };
 
   const handleAnswerChange = (questionId, answer) => {
+    answersRef.current = { ...answersRef.current, [questionId]: answer };
+    dirtyRef.current = true;
     setAnswers((prev) => ({
       ...prev,
       [questionId]: answer,
@@ -71,11 +104,12 @@ const TakeQuiz = () => {
       const submission = {
         quizId: quiz.id,
         studentId: user.id,
-        answers: answers,
+        answers: answersRef.current,
         studentFeedback: feedback || null,
       };
 
-  const response = await api.post('/quiz-attempts/submit', submission);
+      // Always through the session, whose clock enforces the time limit
+      const response = await api.post(`/quiz-sessions/${sessionId}/finish`, submission);
       setScore(response.data);
       toast.success(`Quiz submitted! Score: ${response.data.score.toFixed(1)}%`);
       